@@ -1,5 +1,8 @@
 package net.cytocloud.pasyncsql.lib.api.adapter;
 
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction.EvictionPolicy;
+import net.cytocloud.pasyncsql.lib.worker.ExecutionMode;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -21,6 +24,9 @@ public class Database {
         String password();
         int timeout() default 300;
         int tries() default 3;
+        int minIdle() default 1; // how many connections are kept open while idle
+        int maxPoolSize() default 4; // how many connections can execute tasks at the same time
+        ExecutionMode executionMode() default ExecutionMode.PLATFORM; // VIRTUAL => every task runs on its own virtual thread (Java 21+)
 
     }
 
@@ -38,6 +44,8 @@ public class Database {
 
         String id(); //the name of the table in the database
 
+        Class<?> type() default Void.class; //a record or class which is mapped to the rows (Void = no mapping)
+
     }
 
     @Retention(RetentionPolicy.RUNTIME)
@@ -50,10 +58,11 @@ public class Database {
         boolean autoSave() default false; // Uploads all cached values and (autoEmpty) empties the cache
         boolean autoEmpty() default false; //Empties the cache after saving (needs autoSave = true)
         int saveInterval() default 30; // the interval in minutes where the whole cache gets uploaded and emptied (needs autoSave to be on)
-
-        //TODO: can be added for future cache controls
-        //boolean detectExpiration() default false; // enables that data sets can expire after a certain amount of time (
-
+        EvictionPolicy eviction() default EvictionPolicy.FIFO; // which data set gets removed when the cache is full
+        int expireAfterWrite() default -1; // seconds after the last download/change until a data set gets removed (-1 => never)
+        int expireAfterAccess() default -1; // seconds after the last read until a data set gets removed (-1 => never)
+        int negativeTTL() default -1; // seconds a value without a data set in the sql is remembered, so it isn't selected again (-1 => never)
+        String[] indexedProperties() default {}; // unique properties (besides the primary key) which can be used to find the data sets
 
     }
 
@@ -1,5 +1,6 @@
 package net.cytocloud.pasyncsql.lib.api.adapter.interpreter;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.cytocloud.pasyncsql.lib.api.adapter.Database;
 import net.cytocloud.pasyncsql.lib.api.adapter.DatabaseAdapter;
@@ -12,25 +13,38 @@ import net.cytocloud.pasyncsql.lib.api.types.CacheConfig;
 import net.cytocloud.pasyncsql.lib.api.types.Connection;
 import net.cytocloud.pasyncsql.lib.api.types.resolved.ResolvedTable;
 import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import net.cytocloud.pasyncsql.lib.api.types.standard.TableIndex;
 import net.cytocloud.pasyncsql.lib.api.types.standard.TableSchema;
 import net.cytocloud.pasyncsql.lib.worker.ConnectionBridge;
 import net.cytocloud.pasyncsql.lib.worker.ConnectionInformation;
 import net.cytocloud.pasyncsql.lib.worker.SQLWorker;
 import net.cytocloud.pasyncsql.lib.worker.exceptions.DatabaseNotConnectedException;
+import net.cytocloud.pasyncsql.lib.worker.helper.DetachedResultSet;
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
-import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 public class DatabaseAdapterInterpreter {
-    
+
+    private static final int CONNECT_TIMEOUT = 10; // seconds to wait for the connection and the creation of the tables
+
+    /**
+     * Interpret the adapter and start to bind its tables and caches (doesn't block, see {@link Connection#whenReady()})
+     * @param adapter The adapter
+     * @return The connection of the adapter
+     */
     @ApiStatus.Internal
     public static @NotNull Connection createConnection(@NotNull DatabaseAdapter adapter) {
         ConnectionInformation information = null; // Which connection parameters are used
@@ -52,7 +66,7 @@ public class DatabaseAdapterInterpreter {
                 if(information != null)
                     throw new TooManyDatabaseConnectionsException();
 
-                information = new ConnectionInformation(connection.hostname(), connection.port(), connection.database(), connection.username(), connection.password(), connection.timeout(), connection.tries());
+                information = new ConnectionInformation(connection.hostname(), connection.port(), connection.database(), connection.username(), connection.password(), connection.timeout(), connection.tries(), connection.minIdle(), connection.maxPoolSize(), connection.executionMode());
                 bridge = new ConnectionBridge(information);
 
                 connectionField = field;
@@ -76,7 +90,8 @@ public class DatabaseAdapterInterpreter {
 
                 try {
                     field.setAccessible(true);
-                    interpretedTables.add(new InterpretedTable(tableID, ((TableSchema) field.get(adapter)).getProperties(), field));
+                    final TableSchema schema = (TableSchema) field.get(adapter);
+                    interpretedTables.add(new InterpretedTable(tableID, schema.getProperties(), field, table.type() == Void.class ? null : table.type(), schema.getIndexes()));
                 } catch (IllegalAccessException e) {
                     throw new FieldNotEditableException(field, e);
                 }
@@ -106,6 +121,11 @@ public class DatabaseAdapterInterpreter {
                     cc.set(CacheConfig.CacheProperty.AUTO_SAVE, cacheInformation.autoSave());
                     cc.set(CacheConfig.CacheProperty.MAX_ENTRIES, cacheInformation.maxEntries());
                     cc.set(CacheConfig.CacheProperty.SAVE_INTERVAL, cacheInformation.saveInterval());
+                    cc.set(CacheConfig.CacheProperty.EVICTION_POLICY, cacheInformation.eviction());
+                    cc.set(CacheConfig.CacheProperty.EXPIRE_AFTER_WRITE, cacheInformation.expireAfterWrite());
+                    cc.set(CacheConfig.CacheProperty.EXPIRE_AFTER_ACCESS, cacheInformation.expireAfterAccess());
+                    cc.set(CacheConfig.CacheProperty.NEGATIVE_TTL, cacheInformation.negativeTTL());
+                    cc.set(CacheConfig.CacheProperty.INDEXED_PROPERTIES, cacheInformation.indexedProperties());
                 } catch (IllegalAccessException e) {
                     throw new FieldNotEditableException(field, e);
                 }
@@ -127,85 +147,135 @@ public class DatabaseAdapterInterpreter {
         }catch(Exception e) {
             throw new FieldNotEditableException(connectionField, e);
         }
-        
+
+        interpretedConnection.bind();
+
         return interpretedConnection;
     }
 
     /**
-     * Overrides the field in the adapter class of any entered interpreted tables. Look if all tables are working properly and trying to create them
+     * Overrides the field in the adapter class of any entered interpreted tables. Look if all tables are working properly and trying to create them.
+     * All tables are validated with one query, missing tables are created at the same time (blocks until it is done)
      * @param interpretedTables The interpreted tables
      * @return All resolved tables
+     * @see #registerAllTablesAsync(List, ConnectionBridge, DatabaseAdapter)
      */
     public static @NotNull List<ResolvedTable> registerAllTables(@NotNull List<InterpretedTable> interpretedTables, @NotNull ConnectionBridge connection, @NotNull DatabaseAdapter adapter) {
-        final List<ResolvedTable> resolvedTables = new ArrayList<>();
+        try {
+            return registerAllTablesAsync(interpretedTables, connection, adapter).join();
+        }catch(CompletionException e) {
+            if(e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
 
-        int tries = 0;
+            throw e;
+        }
+    }
 
-        while(!connection.isConnected()) {
-            try {
-                Thread.sleep(1000);
-                tries++;
+    /**
+     * Overrides the field in the adapter class of any entered interpreted tables without blocking. Waits for the connection,
+     * validates all tables with one query and creates the missing tables and indexes at the same time
+     * @param interpretedTables The interpreted tables
+     * @return A future which completes with all resolved tables
+     */
+    public static @NotNull CompletableFuture<List<ResolvedTable>> registerAllTablesAsync(@NotNull List<InterpretedTable> interpretedTables, @NotNull ConnectionBridge connection, @NotNull DatabaseAdapter adapter) {
+        return connection.whenConnected()
+            .orTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
+            .exceptionally(throwable -> {
+                throw new DatabaseNotConnectedException(connection);
+            })
+            // Get the information schema of all tables and indexes of the database (both queries at the same time)
+            .thenCompose(bridge -> querySchema(connection, "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME, ORDINAL_POSITION")
+                .thenCombine(querySchema(connection, "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME FROM INFORMATION_SCHEMA.STATISTICS WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX"), (columnSet, indexSet) -> {
+                    final Map<String, List<Property>> sqlTables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                    final Map<String, Map<String, SqlIndex>> sqlIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+                    for(int row = 0; row < columnSet.getRowCount(); row++) {
+                        final String name = columnSet.getString(row, "COLUMN_NAME");
+                        final String type = columnSet.getString(row, "DATA_TYPE");
+                        final int maxLength = columnSet.getInt(row, "CHARACTER_MAXIMUM_LENGTH");
+
+                        sqlTables.computeIfAbsent(columnSet.getString(row, "TABLE_NAME"), t -> new ArrayList<>()).add(new Property(name, Property.Type.parseType(type), maxLength));
+                    }
 
-                if(tries == 10) throw new DatabaseNotConnectedException(connection);
-            }catch(InterruptedException ignored) {}
-        }
+                    for(int row = 0; row < indexSet.getRowCount(); row++) {
+                        final boolean unique = indexSet.getInt(row, "NON_UNIQUE") == 0;
 
-        for (InterpretedTable interpretedTable : interpretedTables) {
-            final String id = interpretedTable.getId();
+                        sqlIndexes.computeIfAbsent(indexSet.getString(row, "TABLE_NAME"), t -> new LinkedHashMap<>())
+                            .computeIfAbsent(indexSet.getString(row, "INDEX_NAME"), i -> new SqlIndex(new ArrayList<>(), unique))
+                            .columns().add(indexSet.getString(row, "COLUMN_NAME"));
+                    }
 
-            // Get the information schema
+                    return resolveTables(interpretedTables, sqlTables, sqlIndexes, connection, adapter);
+                }))
+            .thenCompose(resolving -> resolving);
+    }
 
-            try {
-                ResultSet set = connection.executeSQLQuery(String.format("SELECT * From INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = '%s'", id)).getResponse().syncUntil(3, TimeUnit.SECONDS);;
-                List<Property> properties = new ArrayList<>();
+    private static @NotNull CompletableFuture<DetachedResultSet> querySchema(@NotNull ConnectionBridge connection, @NotNull String query) {
+        return connection.executeDetachedSQLQuery(query).getDetachedResponse().toCompletableFuture().orTimeout(3, TimeUnit.SECONDS);
+    }
 
-                while(set.next()) {
-                    final String name = set.getString("COLUMN_NAME");
-                    final String type = set.getString("DATA_TYPE");
-                    final int maxLength = set.getInt("CHARACTER_MAXIMUM_LENGTH");
+    private static @NotNull CompletableFuture<List<ResolvedTable>> resolveTables(@NotNull List<InterpretedTable> interpretedTables, @NotNull Map<String, List<Property>> sqlTables, @NotNull Map<String, Map<String, SqlIndex>> sqlIndexes, @NotNull ConnectionBridge connection, @NotNull DatabaseAdapter adapter) {
+        final List<ResolvedTable> resolvedTables = new ArrayList<>();
+        final List<CompletableFuture<?>> creations = new ArrayList<>();
 
-                    properties.add(new Property(name, Property.Type.parseType(type), maxLength));
-                }
+        for (InterpretedTable interpretedTable : interpretedTables) {
+            final String id = interpretedTable.getId();
+            final List<Property> properties = sqlTables.getOrDefault(id, List.of());
+
+            // When no properties are found the table don't exist ---> Create (all creations run at the same time)
+            if(properties.isEmpty()) {
+                Bukkit.getLogger().info("SQLConnection create table \"" + id + "\"");
+                creations.add(connection.executeSQLUpdate("CREATE TABLE `" + id + "` (" + createCreationQuery(interpretedTable) + ")").whenDone()); // update tasks don't complete their response
+            }else {
+                // Table already exist --> Check if the saved table is the same as the provided one
+
+                if(properties.size() != interpretedTable.getProperties().length)
+                    throw new InvalidTableException(interpretedTable);
 
-                // When no properties are found the table don't exist ---> Create
-                if(properties.isEmpty()) {
-                    Bukkit.getLogger().info("SQLConnection create table \"" + id + "\"");
-                    connection.executeSQLUpdate("CREATE TABLE `" + id + "` (" + createCreationQuery(interpretedTable) + ")");
-                }else {
-                    // Table already exist --> Check if the saved table is the same as the provided one
+                for (int i = 0; i < properties.size(); i++) {
+                    final Property p1 = properties.get(i);
+                    final Property p2 = interpretedTable.getProperties()[i];
 
-                    if(properties.size() != interpretedTable.getProperties().length)
+                    if(!p1.getName().equalsIgnoreCase(p2.getName()) || p1.getType() != p2.getType())
                         throw new InvalidTableException(interpretedTable);
+                }
 
-                    for (int i = 0; i < properties.size(); i++) {
-                        final Property p1 = properties.get(i);
-                        final Property p2 = interpretedTable.getProperties()[i];
+                // Create the declared indexes which are missing
+                final Map<String, SqlIndex> existingIndexes = sqlIndexes.getOrDefault(id, Map.of());
 
-                        if(!p1.getName().equalsIgnoreCase(p2.getName()) || p1.getType() != p2.getType())
-                            throw new InvalidTableException(interpretedTable);
-                    }
+                for(TableIndex index : interpretedTable.getIndexes()) {
+                    if(existingIndexes.values().stream().anyMatch(existing -> index.isCoveredBy(existing.columns(), existing.unique())))
+                        continue;
 
-                    /*
-                        --- The table is the same ---
-                        Add relation with a ResolvedTable
-                     */
+                    Bukkit.getLogger().info("SQLConnection create index \"" + index.name() + "\" on table \"" + id + "\"");
+                    creations.add(connection.executeSQLUpdate("CREATE " + (index.unique() ? "UNIQUE " : "") + "INDEX `" + index.name() + "` ON `" + id + "` (" + index.getFormattedProperties() + ")").whenDone());
+                }
+            }
 
-                    final ResolvedTable resolvedTable = new ResolvedTable(id, interpretedTable, connection);
+            /*
+                --- The table is the same (or was created) ---
+                Add relation with a ResolvedTable
+             */
 
-                    Field relation = interpretedTable.getRelation();
-                    relation.setAccessible(true);
-                    relation.set(adapter, resolvedTable);
+            final ResolvedTable resolvedTable = new ResolvedTable(id, interpretedTable, connection);
 
-                    resolvedTables.add(resolvedTable);
-                }
+            if(interpretedTable.getType() != null)
+                resolvedTable.getMapper(interpretedTable.getType()); // build the mapper now (no reflection on the first query)
 
-            }catch(Exception e) {
-                throw new RuntimeException(e);
+            try {
+                Field relation = interpretedTable.getRelation();
+                relation.setAccessible(true);
+                relation.set(adapter, resolvedTable);
+            }catch(IllegalAccessException e) {
+                throw new FieldNotEditableException(interpretedTable.getRelation(), e);
             }
 
+            resolvedTables.add(resolvedTable);
         }
 
-        return resolvedTables;
+        return CompletableFuture.allOf(creations.toArray(CompletableFuture[]::new))
+            .orTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
+            .thenApply(v -> resolvedTables);
     }
 
     private static @NotNull String createCreationQuery(@NotNull InterpretedTable interpretedTable) {
@@ -225,16 +295,28 @@ public class DatabaseAdapterInterpreter {
             creationQuery.append(", ");
         }
 
+        for(TableIndex index : interpretedTable.getIndexes())
+            creationQuery.append(index.unique() ? "UNIQUE " : "").append("INDEX `").append(index.name()).append("` (").append(index.getFormattedProperties()).append("), ");
 
         return creationQuery.substring(0, creationQuery.length() - 2);
     }
 
+    /**
+     * An index which exists in the sql
+     * @param columns The columns of the index (in their order)
+     * @param unique Is the index unique
+     */
+    private record SqlIndex(@NotNull List<String> columns, boolean unique) {}
+
     @Getter
     public static class InterpretedConnection extends Connection {
 
         private final @NotNull ConnectionBridge bridge;
         private final @NotNull List<InterpretedTable> interpretedTables;
         private final @NotNull List<Cache> caches;
+
+        @Getter(AccessLevel.NONE)
+        private final @NotNull CompletableFuture<Connection> ready = new CompletableFuture<>(); // completed when the tables and caches are bound
         
         InterpretedConnection(@NotNull DatabaseAdapter adapter, @NotNull ConnectionBridge bridge, @NotNull List<InterpretedTable> interpretedTables, @NotNull List<Cache> caches) {
             super(adapter);
@@ -243,19 +325,37 @@ public class DatabaseAdapterInterpreter {
             this.caches = caches;
 
             SQLWorker.registerConnectionBridge(bridge);
+        }
 
-            List<ResolvedTable> resolvedTables = registerAllTables(getInterpretedTables(),  bridge, adapter);
-
-            for(Cache cache : caches) {
-                final String tableID = cache.getTableID();
-                final ResolvedTable resolvedTable = resolvedTables.stream().filter(t -> t.getId().equals(tableID)).findFirst().orElse(null);
-
-                if(resolvedTable == null)
-                    throw new IllegalStateException("Try to create a cache for \"" + tableID + "\" but the table isn't declared anywhere");
+        /**
+         * Validate the tables and bind them and the caches (doesn't block, see {@link #whenReady()})
+         */
+        private void bind() {
+            registerAllTablesAsync(getInterpretedTables(), this.bridge, getAdapter()).thenAccept(resolvedTables -> {
+                for(Cache cache : caches) {
+                    final String tableID = cache.getTableID();
+                    final ResolvedTable resolvedTable = resolvedTables.stream().filter(t -> t.getId().equals(tableID)).findFirst().orElse(null);
+
+                    if(resolvedTable == null)
+                        throw new IllegalStateException("Try to create a cache for \"" + tableID + "\" but the table isn't declared anywhere");
+
+                    cache.setTable(resolvedTable);
+                    resolvedTable.addModificationListener(cache::invalidateMissing); // new rows could match remembered missing values
+                    cache.startHousekeeping();
+                }
+            }).whenComplete((v, throwable) -> {
+                if(throwable != null) {
+                    this.ready.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+                    return;
+                }
 
-                cache.setTable(resolvedTable);
-            }
+                this.ready.complete(this);
+            });
+        }
 
+        @Override
+        public @NotNull CompletableFuture<Connection> whenReady() {
+            return this.ready.copy(); // a timeout of one caller doesn't affect the others
         }
 
     }
@@ -266,11 +366,23 @@ public class DatabaseAdapterInterpreter {
         private final @NotNull String id;
         private final @NotNull Property[] properties;
         private final @NotNull Field relation;
+        private final @Nullable Class<?> type; // the type of the rows (see Database.Table#type)
+        private final @NotNull List<TableIndex> indexes;
 
         public InterpretedTable(@NotNull String id, @NotNull Property[] properties, @NotNull Field relation) {
+            this(id, properties, relation, null);
+        }
+
+        public InterpretedTable(@NotNull String id, @NotNull Property[] properties, @NotNull Field relation, @Nullable Class<?> type) {
+            this(id, properties, relation, type, List.of());
+        }
+
+        public InterpretedTable(@NotNull String id, @NotNull Property[] properties, @NotNull Field relation, @Nullable Class<?> type, @NotNull List<TableIndex> indexes) {
             this.id = id;
             this.properties = properties;
             this.relation = relation;
+            this.type = type;
+            this.indexes = indexes;
         }
 
         public @Nullable Property getPropertyByName(@NotNull String propertyName) {
@@ -2,30 +2,77 @@ package net.cytocloud.pasyncsql.lib.api.init;
 
 import net.cytocloud.pasyncsql.lib.api.adapter.DatabaseAdapter;
 import net.cytocloud.pasyncsql.lib.api.adapter.interpreter.DatabaseAdapterInterpreter;
+import net.cytocloud.pasyncsql.lib.api.types.Cache;
 import net.cytocloud.pasyncsql.lib.api.types.Connection;
+import net.cytocloud.pasyncsql.lib.worker.SQLWorker;
+import net.cytocloud.pasyncsql.lib.worker.helper.Task;
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class PowerfulAsyncSQLAPI {
 
-    private static final @NotNull Map<Class<? extends DatabaseAdapter>, Connection> registeredConnections = new HashMap<>();
+    private static final @NotNull Map<Class<? extends DatabaseAdapter>, Connection> registeredConnections = new ConcurrentHashMap<>();
 
     /**
-     * Initialize connection from an adapter
+     * Initialize connection from an adapter (blocks until the tables and caches are bound)
      * @param adapter A new instance of an adapter object
      * @return The already existing connection of the adapter or a new instance
+     * @see #initConnectionAsync(DatabaseAdapter)
      */
     public static @NotNull Connection initConnection(@NotNull DatabaseAdapter adapter) {
-        if(registeredConnections.containsKey(adapter.getClass()))
-            return registeredConnections.get(adapter.getClass());
+        try {
+            return initConnectionAsync(adapter).join();
+        }catch(CompletionException e) {
+            if(e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+
+            throw e;
+        }
+    }
+
+    /**
+     * Initialize connection from an adapter without blocking. The connection is registered directly (see
+     * {@link #getConnectionFromDatabaseAdapterClass(Class)}), operations can be queued with {@link Connection#whenReady()}
+     * @param adapter A new instance of an adapter object
+     * @return A future which completes with the connection when the tables and caches are bound
+     */
+    public static synchronized @NotNull CompletableFuture<Connection> initConnectionAsync(@NotNull DatabaseAdapter adapter) {
+        final @Nullable Connection registered = registeredConnections.get(adapter.getClass());
+
+        if(registered != null)
+            return registered.whenReady();
+
+        final Connection connection;
+
+        try {
+            connection = DatabaseAdapterInterpreter.createConnection(adapter);
+        }catch(RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        final Connection connection = DatabaseAdapterInterpreter.createConnection(adapter);
         registeredConnections.put(adapter.getClass(), connection);
 
-        return connection;
+        // A failed connection can be initialized again (its worker is stopped)
+        connection.whenReady().whenComplete((c, throwable) -> {
+            if(throwable == null)
+                return;
+
+            registeredConnections.remove(adapter.getClass(), connection);
+            SQLWorker.unregisterConnectionBridge(((DatabaseAdapterInterpreter.InterpretedConnection) connection).getBridge());
+        });
+
+        return connection.whenReady();
     }
 
     /**
@@ -40,5 +87,31 @@ public class PowerfulAsyncSQLAPI {
         return registeredConnections.get(adapterClass);
     }
 
+    /**
+     * Upload the changed data sets of all caches (waits up to the entered time) and stop the sql worker threads
+     * @param timeout The maximum time to wait for the uploads
+     * @param timeUnit The unit of the timeout
+     */
+    public static void shutdown(long timeout, @NotNull TimeUnit timeUnit) {
+        final List<CompletableFuture<Task>> uploads = new ArrayList<>();
+
+        for(Connection connection : registeredConnections.values()) {
+            for(Cache cache : ((DatabaseAdapterInterpreter.InterpretedConnection) connection).getCaches()) {
+                final @Nullable Task task = cache.shutdown();
+
+                if(task != null)
+                    uploads.add(task.getCompletion());
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).get(timeout, timeUnit);
+        }catch(InterruptedException | ExecutionException | TimeoutException e) {
+            Bukkit.getLogger().warning("Not all cached data sets could be uploaded before the shutdown: " + e);
+        }
+
+        SQLWorker.stopThread();
+    }
+
 
 }
@@ -4,33 +4,73 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowEntry;
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
+import net.cytocloud.pasyncsql.lib.api.types.standard.CodecTableRowResolver;
 import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
 import net.cytocloud.pasyncsql.lib.api.types.standard.cache.AutoSaveCallable;
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.CacheKey;
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.CacheScheduler;
 import net.cytocloud.pasyncsql.lib.api.types.standard.cache.CachedDataSet;
 import net.cytocloud.pasyncsql.lib.api.types.standard.TableRowResolver;
 import net.cytocloud.pasyncsql.lib.api.types.standard.cache.CachedDataSetNotFoundException;
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.CompactRow;
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.TimerWheel;
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction.EvictionPolicy;
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction.Evictor;
 import net.cytocloud.pasyncsql.lib.worker.ConnectionBridge;
 import net.cytocloud.pasyncsql.lib.worker.exceptions.DatabaseNotConnectedException;
 import net.cytocloud.pasyncsql.lib.worker.exceptions.InternalDatabaseError;
+import net.cytocloud.pasyncsql.lib.worker.helper.DetachedResultSet;
+import net.cytocloud.pasyncsql.lib.worker.helper.ResponseFuture;
+import net.cytocloud.pasyncsql.lib.worker.helper.Task;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
+/**
+ * A cache for the data sets of one table. It can be used from any thread: reads don't lock, writes lock only the stripe
+ * of their key and the eviction policy / expiration is guarded by a separate lock which reads only try to get
+ */
 @Getter
 public class Cache {
 
+    public static final int DEFAULT_LOAD_CHUNK_SIZE = 500; // how many values are selected at once by getAll (= size of the IN list)
+    private static final int[] LOAD_BUCKETS = { 1, 8, 32, DEFAULT_LOAD_CHUNK_SIZE }; // sizes of the IN lists, so only a few statements get prepared
+
+    private static final int STRIPES = 16; // amount of write locks (power of two)
+    private static final int READ_BUFFER_SIZE = 128; // how many reads are buffered for the eviction policy (more reads are not recorded)
+    private static final int MAX_MISSING_KEYS = 10_000; // how many missing values are remembered at most (negative caching)
+
     private final @NotNull TableRowResolver resolver;
     private final @NotNull CacheConfig cacheConfig = new CacheConfig();
     private final @NotNull List<AutoSaveCallable> autoSaveListeners = new ArrayList<>();
 
-    @Setter
     private @NotNull Table table;
 
     @Setter
@@ -40,42 +80,219 @@ public class Cache {
     private @NotNull ConnectionBridge connectionBridge;
 
     @Getter(AccessLevel.NONE)
-    private final @NotNull List<CachedDataSet> cachedDataSets = new ArrayList<>();
+    private final @NotNull Map<CacheKey, CachedDataSet> cachedDataSets = new ConcurrentHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull Set<CacheKey> writingBack = ConcurrentHashMap.newKeySet(); // removed data sets which are kept until their changes are uploaded
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull Map<CacheKey, CacheKey> secondaryIndex = new ConcurrentHashMap<>(); // (indexed property, value) -> key of the data set
+
+    @Getter(AccessLevel.NONE)
+    private volatile @Nullable Property[] indexedProperties = null; // resolved on first use (the table is set after the construction)
+
+    @Getter(AccessLevel.NONE)
+    private volatile @Nullable CompactRow.Layout rowLayout = null; // created on first use (the table is set after the construction)
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull ReentrantLock policyLock = new ReentrantLock(); // guards the evictor, the expiration wheel and draining the read buffer
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull Queue<CacheKey> readBuffer = new ConcurrentLinkedQueue<>();
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull AtomicInteger readBufferSize = new AtomicInteger(0);
+
+    @Getter(AccessLevel.NONE)
+    private @Nullable Evictor<CacheKey> evictor = null; // created on first use (the cache config is set after the construction)
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull TimerWheel<CacheKey> expirationWheel = new TimerWheel<>(System.currentTimeMillis());
+
+    @Getter(AccessLevel.NONE)
+    private @Nullable ScheduledFuture<?> expiration = null;
+
+    @Getter(AccessLevel.NONE)
+    private @Nullable ScheduledFuture<?> autoSave = null;
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull Map<CacheKey, CompletableFuture<CachedDataSet>> loads = new ConcurrentHashMap<>(); // downloads which are in progress
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull Map<CacheKey, Long> missingKeys = new ConcurrentHashMap<>(); // values without a data set in the sql -> until when they are remembered
+
+    @Getter(AccessLevel.NONE)
+    private final @NotNull AtomicLong missingGeneration = new AtomicLong(0); // increased on every invalidation (downloads started before can't remember their miss)
+
+    /**
+     * Create a cache which converts the properties with their codecs
+     * @see CodecTableRowResolver
+     */
+    public Cache() {
+        this(new CodecTableRowResolver());
+    }
 
     public Cache(@NotNull TableRowResolver resolver) {
         this.resolver = resolver;
+
+        for(int i = 0; i < STRIPES; i++)
+            this.stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * Bind the table of this cache (the properties are bound to the resolver)
+     * @param table The resolved table
+     */
+    public void setTable(@NotNull Table table) {
+        this.table = table;
+        this.resolver.bind(table.resolvedTable().asInterpretedTable().getProperties());
     }
 
     /**
-     * Download the data set from the sql and create a cached data set for it. It won't add it into the cache directly
+     * Download the data set from the sql and create a cached data set for it. It won't add it into the cache directly.
+     * Data sets which are found by an indexed property use their primary key (like {@link #getAsync(Property, String)})
      * @param property The property which is used for selecting the data set
      * @param value The filter for getting the value (= needs to be unique)
      * @return The cached data set or null when no data set is available in the sql
      * @throws DatabaseNotConnectedException When the database is not connected
      */
     public @Nullable CachedDataSet download(@NotNull Property property, @NotNull String value) {
-         if(!this.getConnectionBridge().isConnected())
-             throw new DatabaseNotConnectedException(getConnectionBridge());
+        final CompletableFuture<CachedDataSet> future = downloadAsync(property, value);
+
+        try {
+            return future.get(2, TimeUnit.SECONDS);
+        }catch(ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+
+            throw new InternalDatabaseError("The download of the data set failed", e.getCause());
+        }catch(TimeoutException e) {
+            throw new InternalDatabaseError("The download of the data set took too long. Is the database still connected?", e);
+        }catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalDatabaseError("Interrupted while waiting for the data set", e);
+        }
+    }
+
+    /**
+     * Download the data set from the sql without blocking. The result set is converted by the resolver on the worker
+     * @param property The property which is used for selecting the data set
+     * @param value The filter for getting the value (= needs to be unique)
+     * @return A future which completes with the cached data set or null when no data set is available in the sql
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    private @NotNull CompletableFuture<CachedDataSet> downloadAsync(@NotNull Property property, @NotNull String value) {
+        final CompletableFuture<CachedDataSet> future = new CompletableFuture<>();
+        final Property[] properties = getTable().resolvedTable().asInterpretedTable().getProperties();
+        final String query = String.format("SELECT * FROM `%s` WHERE `%s` = ?", getTable().resolvedTable().getId(), property.getName());
 
-        final @Nullable ResultSet resultSet = getTable().resolvedTable().selectAll(String.format("`%s` = '%s'", property.getName(), value)).getResponse().syncUntil(2, TimeUnit.SECONDS);
+        final Task task = getConnectionBridge().executeConnectionTask(Task.create(connection -> {
+            final PreparedStatement statement = getConnectionBridge().getPool().prepare(connection, query);
+            statement.setString(1, value);
 
-        if(resultSet == null)
-            throw new InternalDatabaseError("The result set from the download request is null. Is the database still connected?");
+            try(ResultSet resultSet = statement.executeQuery()) {
+                if(!resultSet.isBeforeFirst()) { // no row
+                    future.complete(null);
+                    return;
+                }
 
-        //Convert the gathered information into objects
-        final Map<Property, Object> objects = getResolver().createObjects(resultSet, getTable().resolvedTable().asInterpretedTable().getProperties());
+                resultSet.next();
+                future.complete(createDownloaded(property, value, resultSet, properties, System.currentTimeMillis()));
+            }
+        }));
 
-        return new CachedDataSet(property, value, this, objects, System.currentTimeMillis());
+        task.getResponse().onFailure(future::completeExceptionally);
+        return future;
+    }
+
+    /**
+     * Create a data set of the current row of a download. Data sets which are found by an indexed property are stored
+     * with their primary key, so every row exists only once in the cache
+     * @param property The property which was used for selecting the row
+     * @param value The value which was used for selecting the row
+     * @param resultSet The result set which points to the row
+     * @param properties All properties of the table
+     * @param time The time of the download
+     * @return The new data set
+     * @throws SQLException When the row couldn't be read
+     */
+    private @NotNull CachedDataSet createDownloaded(@NotNull Property property, @NotNull String value, @NotNull ResultSet resultSet, @NotNull Property[] properties, long time) throws SQLException {
+        final Map<Property, Object> objects = getResolver().createObjectsOfRow(resultSet, properties);
+        final CachedDataSet cachedDataSet;
+
+        if(isIndexed(property)) {
+            final Property primaryKey = Objects.requireNonNull(getTable().resolvedTable().asInterpretedTable().getPrimaryKeyProperty());
+            cachedDataSet = new CachedDataSet(primaryKey, resultSet.getString(primaryKey.getName()), this, objects, time);
+        }else {
+            cachedDataSet = new CachedDataSet(property, value, this, objects, time);
+        }
+
+        cachedDataSet.markClean(); // equal to the sql
+        return cachedDataSet;
     }
 
     /**
      * Search for the cached data set (If it is already saved)
-     * @param property The property which was used
+     * @param property The property which was used (indexed properties are looked up in the index)
      * @param value The value which was used
      * @return The cached data set if found or null
      */
     public @Nullable CachedDataSet search(@NotNull Property property, @NotNull String value) {
-        return this.cachedDataSets.stream().filter(d -> d.getProperty() == property && d.getValue().equals(value)).findFirst().orElse(null);
+        final @Nullable CacheKey key = isIndexed(property) ? this.secondaryIndex.get(new CacheKey(property, value)) : new CacheKey(property, value);
+        final @Nullable CachedDataSet cachedDataSet = key == null ? null : this.cachedDataSets.get(key);
+
+        if(cachedDataSet != null)
+            afterRead(cachedDataSet);
+
+        return cachedDataSet;
+    }
+
+    /**
+     * Record a read without blocking. The read gets buffered and is handed to the eviction policy when the policy lock is free
+     * @param cachedDataSet The data set which was read
+     */
+    private void afterRead(@NotNull CachedDataSet cachedDataSet) {
+        cachedDataSet.recordAccess(); // the expiration always uses this time, so a dropped read doesn't expire the data set too early
+
+        if(this.readBufferSize.incrementAndGet() <= READ_BUFFER_SIZE) {
+            this.readBuffer.offer(cachedDataSet.getKey());
+        }else {
+            this.readBufferSize.decrementAndGet();
+        }
+
+        if(this.policyLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            }finally {
+                this.policyLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Hand the buffered reads to the eviction policy. Requires the policy lock
+     */
+    private void drainReadBuffer() {
+        CacheKey key;
+
+        while((key = this.readBuffer.poll()) != null) {
+            this.readBufferSize.decrementAndGet();
+
+            if(this.cachedDataSets.containsKey(key))
+                getEvictor().recordAccess(key);
+        }
+    }
+
+    /**
+     * @param key The key of a data set
+     * @return The write lock of the key
+     */
+    private @NotNull ReentrantLock lockOf(@NotNull CacheKey key) {
+        final int hash = key.hashCode();
+        return this.stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
     }
 
     /**
@@ -105,7 +322,7 @@ public class Cache {
      * @return true when the data set is already registered
      */
     public boolean isDataSetAlreadyRegistered(@NotNull CachedDataSet cachedDataSet) {
-        return this.cachedDataSets.stream().anyMatch(d -> d.getValue().equals(cachedDataSet.getValue()) && d.getProperty() == cachedDataSet.getProperty());
+        return this.cachedDataSets.containsKey(cachedDataSet.getKey());
     }
 
     /**
@@ -119,39 +336,78 @@ public class Cache {
         if(!this.getConnectionBridge().isConnected())
             throw new DatabaseNotConnectedException(getConnectionBridge());
 
-        final @Nullable ResultSet resultSet = getTable().resolvedTable().selectAll(String.format("`%s` = '%s'", cachedDataSet.getProperty().getName(), cachedDataSet.getValue())).getResponse().syncUntil(2, TimeUnit.SECONDS);
+        final @Nullable DetachedResultSet result = getTable().resolvedTable().selectAllPrepared(new TableRowValue(cachedDataSet.getProperty(), cachedDataSet.getValue())).getDetachedResponse().syncUntil(2, TimeUnit.SECONDS);
 
-        if(resultSet == null)
+        if(result == null)
             throw new InternalDatabaseError("The result set is null. Database probably not connected?");
 
-        try {
-            return resultSet.next();
-        } catch (SQLException e) {
-            throw new InternalDatabaseError("Unknown error") {
-                @Override
-                public synchronized Throwable getCause() {
-                    return e;
-                }
-            };
-        }
+        return !result.isEmpty();
     }
 
     /**
-     * Update (e.g. Upload) a cached data set into the sql (Overwrites an existing data set)
+     * Update (e.g. Upload) a cached data set into the sql (Overwrites an existing data set). This doesn't block, the
+     * row gets inserted or updated with one prepared statement
      * @param cachedDataSet The cached data set
+     * @return The created task for the request
+     * @throws DatabaseNotConnectedException When the database is not connected
      */
-    public void update(@NotNull CachedDataSet cachedDataSet) {
-        final Table table = cachedDataSet.getCache().getTable();
+    public @NotNull Task update(@NotNull CachedDataSet cachedDataSet) {
+        return writeBack(List.of(cachedDataSet), null);
+    }
 
-        // The table already have the table row?
-        if(isDataSetOnSQL(cachedDataSet)) {
-            // Update the existing table row
-            table.resolvedTable().update(cachedDataSet.toTableRow(), "`" + cachedDataSet.getProperty().getName() + "` = '" + cachedDataSet.getValue() + "'");
-            return;
+    /**
+     * Upload all changed (dirty) data sets of this cache in one batch. Data sets which were changed several times since
+     * the last flush are only written once
+     * @return The created task for the request or null when no data set was changed
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    public @Nullable Task flush() {
+        return flush(null);
+    }
+
+    private @Nullable Task flush(@Nullable Runnable afterWriteBack) {
+        final List<CachedDataSet> dirtyDataSets = this.cachedDataSets.values().stream().filter(CachedDataSet::isDirty).toList();
+
+        if(dirtyDataSets.isEmpty())
+            return null;
+
+        return writeBack(dirtyDataSets, afterWriteBack);
+    }
+
+    /**
+     * Upload the data sets. They are marked clean after the upload succeeded (when they weren't changed in the meantime)
+     * @param dataSets The data sets
+     * @param afterWriteBack Called after the upload is done and the data sets are cleaned (also when it failed)
+     * @return The created task for the request
+     */
+    private @NotNull Task writeBack(@NotNull List<CachedDataSet> dataSets, @Nullable Runnable afterWriteBack) {
+        final List<TableRowValue[]> rows = new ArrayList<>(dataSets.size());
+        final long[] modifications = new long[dataSets.size()];
+
+        for(int i = 0; i < dataSets.size(); i++) {
+            final CachedDataSet cachedDataSet = dataSets.get(i);
+
+            synchronized(cachedDataSet) { // the row and the modification count need to match
+                modifications[i] = cachedDataSet.getModifications();
+                rows.add(cachedDataSet.toTableRowValues());
+            }
         }
 
-        // Insert a new table row
-        table.resolvedTable().insert(cachedDataSet.toTableRow());
+        // Insert new table rows or update the existing ones (with the same primary key)
+        final Task task = getTable().resolvedTable().upsertAllPrepared(rows);
+
+        // Only cleaned when the upload succeeded and the data set wasn't changed during the upload
+        task.whenDone().whenComplete((t, throwable) -> {
+            if(throwable == null) {
+                for(int i = 0; i < dataSets.size(); i++)
+                    dataSets.get(i).markClean(modifications[i]);
+            }
+
+            if(afterWriteBack != null)
+                afterWriteBack.run();
+        });
+
+        return task;
     }
 
     /**
@@ -160,26 +416,189 @@ public class Cache {
      * @throws IllegalStateException When the cached data set is already existing
      */
     public void save(@NotNull CachedDataSet cachedDataSet) {
-        if(isDataSetAlreadyRegistered(cachedDataSet))
-            throw new IllegalStateException("The data set is already existing in the cache");
+        final CacheKey key = cachedDataSet.getKey();
+        final ReentrantLock lock = lockOf(key);
+
+        lock.lock();
+        try {
+            if(this.cachedDataSets.containsKey(key))
+                throw new IllegalStateException("The data set is already existing in the cache");
+
+            insert(cachedDataSet);
+        }finally {
+            lock.unlock();
+        }
+
+        evictOverflow();
+    }
+
+    /**
+     * Get the cached data set or create and save a new one atomically. The function is called at most once, even when
+     * other threads ask for the same data set at the same time
+     * @param property The property which is used for the data set
+     * @param value The value which is used for the data set
+     * @param mappingFunction Creates the data set when it isn't cached (it needs to use the entered property and value)
+     * @return The cached or created data set
+     * @throws IllegalArgumentException When the created data set has another property or value
+     */
+    public @NotNull CachedDataSet computeIfAbsent(@NotNull Property property, @NotNull String value, @NotNull Function<CacheKey, CachedDataSet> mappingFunction) {
+        final CacheKey key = new CacheKey(property, value);
+        final @Nullable CachedDataSet internalSavedDataSet = this.cachedDataSets.get(key);
+
+        if(internalSavedDataSet != null) {
+            afterRead(internalSavedDataSet);
+            return internalSavedDataSet;
+        }
+
+        final ReentrantLock lock = lockOf(key);
+        final CachedDataSet result;
+
+        lock.lock();
+        try {
+            final @Nullable CachedDataSet existing = this.cachedDataSets.get(key);
+
+            if(existing != null) {
+                result = existing;
+            }else {
+                result = mappingFunction.apply(key);
+
+                if(!result.getKey().equals(key))
+                    throw new IllegalArgumentException("The created data set doesn't match the key " + key);
+
+                insert(result);
+            }
+        }finally {
+            lock.unlock();
+        }
 
+        evictOverflow();
+        return result;
+    }
+
+    /**
+     * Add a data set to the index and the eviction policy. Requires the lock of its key
+     * @param cachedDataSet The data set
+     */
+    private void insert(@NotNull CachedDataSet cachedDataSet) {
+        final CacheKey key = cachedDataSet.getKey();
+
+        // A change of an indexed value waits until the data set is indexed
+        synchronized(cachedDataSet) {
+            this.cachedDataSets.put(key, cachedDataSet);
+            this.missingKeys.remove(key);
+
+            for(Property property : getIndexedProperties()) {
+                final @Nullable Object value = cachedDataSet.get(property);
+
+                if(value == null)
+                    continue;
+
+                final CacheKey indexKey = new CacheKey(property, String.valueOf(value));
+
+                this.secondaryIndex.put(indexKey, key);
+                this.missingKeys.remove(indexKey);
+            }
+        }
+
+        this.policyLock.lock();
+        try {
+            getEvictor().recordInsert(cachedDataSet.getKey());
+            scheduleExpiration(cachedDataSet);
+        }finally {
+            this.policyLock.unlock();
+        }
+    }
+
+    /**
+     * Remove data sets (chosen by the eviction policy) until the cache isn't overloaded anymore. Called without holding a lock,
+     * so a cache can exceed its maximum for a short time while many threads are saving
+     */
+    private void evictOverflow() {
         final int maxEntries = this.getCacheConfig().get(CacheConfig.CacheProperty.MAX_ENTRIES);
 
-        // When the cache is already full
-        if(maxEntries != -1 && maxEntries == this.cachedDataSets.size()) {
-            // Get the data set that would be removed due to overloading the cache
-            final @NotNull CachedDataSet dataSetToRemove = this.cachedDataSets.get(0);
+        if(maxEntries == -1)
+            return;
+
+        while(this.cachedDataSets.size() - this.writingBack.size() > maxEntries) {
+            final @Nullable CacheKey keyToRemove;
 
-            // When auto upload is enabled the data set get updated
-            if(this.getCacheConfig().get(CacheConfig.CacheProperty.AUTO_UPLOAD)) {
-                update(dataSetToRemove);
+            this.policyLock.lock();
+            try {
+                drainReadBuffer();
+                keyToRemove = getEvictor().selectVictim();
+            }finally {
+                this.policyLock.unlock();
+            }
+
+            final @Nullable CachedDataSet dataSetToRemove = keyToRemove == null ? null : this.cachedDataSets.get(keyToRemove);
+
+            if(dataSetToRemove == null) // removed by another thread in the meantime
+                return;
+
+            // When auto upload is enabled the changes of the data set get uploaded before it is removed
+            if(isWriteBackEnabled() && dataSetToRemove.isDirty()) {
+                if(!removeAfterWriteBack(dataSetToRemove))
+                    return; // the changes would be lost -> the cache stays overloaded until the database is connected again
+
+                continue;
             }
 
             // The data set get removed
             remove(dataSetToRemove);
         }
+    }
+
+    /**
+     * Upload the changes of a data set and remove it afterwards. It stays in the cache when the upload failed or it was
+     * changed during the upload
+     * @param cachedDataSet The dirty data set
+     * @return false when the database is not connected (nothing was uploaded)
+     */
+    private boolean removeAfterWriteBack(@NotNull CachedDataSet cachedDataSet) {
+        final CacheKey key = cachedDataSet.getKey();
+
+        if(!this.writingBack.add(key)) // already uploading
+            return true;
+
+        // Not chosen by the eviction policy again while it is uploaded
+        this.policyLock.lock();
+        try {
+            getEvictor().recordRemove(key);
+        }finally {
+            this.policyLock.unlock();
+        }
+
+        try {
+            writeBack(List.of(cachedDataSet), () -> {
+                this.writingBack.remove(key);
+
+                if(!remove(cachedDataSet, true))
+                    keep(cachedDataSet);
+            });
+        }catch(DatabaseNotConnectedException e) {
+            this.writingBack.remove(key);
+            keep(cachedDataSet);
+            return false;
+        }
+
+        return true;
+    }
 
-        this.cachedDataSets.add(cachedDataSet);
+    /**
+     * Hand a data set which couldn't be removed back to the eviction policy and the expiration (e.g. after its upload failed)
+     * @param cachedDataSet The data set
+     */
+    private void keep(@NotNull CachedDataSet cachedDataSet) {
+        this.policyLock.lock();
+        try {
+            if(this.cachedDataSets.get(cachedDataSet.getKey()) != cachedDataSet)
+                return;
+
+            getEvictor().recordInsert(cachedDataSet.getKey());
+            scheduleExpiration(cachedDataSet);
+        }finally {
+            this.policyLock.unlock();
+        }
     }
 
     /**
@@ -187,7 +606,348 @@ public class Cache {
      * @param cachedDataSet An existing cached data set in the cache
      */
     public void remove(@NotNull CachedDataSet cachedDataSet) {
-        this.cachedDataSets.remove(cachedDataSet);
+        remove(cachedDataSet, false);
+    }
+
+    /**
+     * @param cachedDataSet An existing cached data set in the cache
+     * @param onlyClean Only remove the data set when it has no changes which are not uploaded
+     * @return true when the data set got removed
+     */
+    private boolean remove(@NotNull CachedDataSet cachedDataSet, boolean onlyClean) {
+        final CacheKey key = cachedDataSet.getKey();
+        final ReentrantLock lock = lockOf(key);
+
+        lock.lock();
+        try {
+            synchronized(cachedDataSet) {
+                if(onlyClean && cachedDataSet.isDirty())
+                    return false;
+
+                if(!this.cachedDataSets.remove(key, cachedDataSet))
+                    return false;
+
+                for(Property property : getIndexedProperties()) {
+                    final @Nullable Object value = cachedDataSet.get(property);
+
+                    if(value != null)
+                        this.secondaryIndex.remove(new CacheKey(property, String.valueOf(value)), key);
+                }
+            }
+
+            this.policyLock.lock();
+            try {
+                getEvictor().recordRemove(key);
+                this.expirationWheel.cancel(key);
+            }finally {
+                this.policyLock.unlock();
+            }
+
+            return true;
+        }finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called by a data set (while it is locked) after one of its values got changed. Keeps the index of the indexed properties up to date
+     * @param cachedDataSet The changed data set
+     * @param property The changed property
+     * @param oldValue The value before
+     * @param newValue The value now
+     */
+    @ApiStatus.Internal
+    public void recordChange(@NotNull CachedDataSet cachedDataSet, @NotNull Property property, @Nullable Object oldValue, @Nullable Object newValue) {
+        if(!isIndexed(property) || this.cachedDataSets.get(cachedDataSet.getKey()) != cachedDataSet)
+            return;
+
+        if(oldValue != null)
+            this.secondaryIndex.remove(new CacheKey(property, String.valueOf(oldValue)), cachedDataSet.getKey());
+
+        if(newValue != null)
+            this.secondaryIndex.put(new CacheKey(property, String.valueOf(newValue)), cachedDataSet.getKey());
+    }
+
+    /**
+     * @return The properties which are indexed besides the key of the data sets
+     * @throws IllegalStateException When an indexed property doesn't exist or the table has no primary key
+     */
+    private @NotNull Property[] getIndexedProperties() {
+        @Nullable Property[] properties = this.indexedProperties;
+
+        if(properties == null) {
+            final String[] names = this.getCacheConfig().get(CacheConfig.CacheProperty.INDEXED_PROPERTIES);
+            properties = new Property[names.length];
+
+            for(int i = 0; i < names.length; i++) {
+                properties[i] = getTable().getPropertyByName(names[i]);
+
+                if(properties[i] == null)
+                    throw new IllegalStateException("The indexed property \"" + names[i] + "\" doesn't exist in the table \"" + getTableID() + "\"");
+            }
+
+            if(properties.length > 0 && getTable().resolvedTable().asInterpretedTable().getPrimaryKeyProperty() == null)
+                throw new IllegalStateException("The cache \"" + getTableID() + "\" needs a table with a primary key to index properties");
+
+            this.indexedProperties = properties;
+        }
+
+        return properties;
+    }
+
+    /**
+     * @return The layout of the rows of the data sets (by the ordinal of the properties in the table schema)
+     */
+    @ApiStatus.Internal
+    public @NotNull CompactRow.Layout getRowLayout() {
+        @Nullable CompactRow.Layout layout = this.rowLayout;
+
+        if(layout == null) {
+            layout = new CompactRow.Layout(getTable().resolvedTable().asInterpretedTable().getProperties());
+            this.rowLayout = layout;
+        }
+
+        return layout;
+    }
+
+    /**
+     * @param property The property
+     * @return true when the data sets can be found by the property with the index (the primary key is never indexed)
+     */
+    private boolean isIndexed(@NotNull Property property) {
+        for(Property indexedProperty : getIndexedProperties()) {
+            if(indexedProperty.equals(property))
+                return !property.isPrimary();
+        }
+
+        return false;
+    }
+
+    /**
+     * Start the periodic expiration and auto save of this cache (when they are configured)
+     */
+    @ApiStatus.Internal
+    public synchronized void startHousekeeping() {
+        getIndexedProperties(); // fail on registration when an indexed property is invalid
+
+        if(this.expiration == null && (getExpireAfterWrite() > 0 || getExpireAfterAccess() > 0 || getNegativeTTL() > 0))
+            this.expiration = CacheScheduler.schedule(this::expire, 1, TimeUnit.SECONDS);
+
+        if(this.autoSave == null && this.getCacheConfig().get(CacheConfig.CacheProperty.AUTO_SAVE)) {
+            final int saveInterval = this.getCacheConfig().get(CacheConfig.CacheProperty.SAVE_INTERVAL);
+
+            if(saveInterval <= 0)
+                throw new IllegalStateException("The save interval of the cache \"" + getTableID() + "\" needs to be positive");
+
+            this.autoSave = CacheScheduler.schedule(this::autoSave, saveInterval, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Stop the housekeeping and upload all changed data sets
+     * @return The created task for the upload or null when no data set was changed or the database is not connected
+     */
+    @ApiStatus.Internal
+    public @Nullable Task shutdown() {
+        synchronized(this) {
+            if(this.expiration != null)
+                this.expiration.cancel(false);
+
+            if(this.autoSave != null)
+                this.autoSave.cancel(false);
+
+            this.expiration = null;
+            this.autoSave = null;
+        }
+
+        if(!getConnectionBridge().isConnected())
+            return null;
+
+        return flush();
+    }
+
+    /**
+     * Upload all changed data sets, empty the cache (when auto empty is enabled) and call the auto save listeners after the upload is done
+     */
+    @ApiStatus.Internal
+    public void autoSave() {
+        if(!getConnectionBridge().isConnected()) // tried again with the next interval
+            return;
+
+        if(flush(this::finishAutoSave) == null)
+            finishAutoSave();
+    }
+
+    private void finishAutoSave() {
+        if(this.getCacheConfig().get(CacheConfig.CacheProperty.AUTO_EMPTY)) {
+            // Data sets which failed to upload or were changed in the meantime stay in the cache
+            for(CachedDataSet cachedDataSet : this.cachedDataSets.values()) {
+                if(!cachedDataSet.isDirty())
+                    remove(cachedDataSet);
+            }
+        }
+
+        this.autoSaveListeners.forEach(AutoSaveCallable::call);
+    }
+
+    /**
+     * Remove all data sets whose expiration time has passed. When auto upload is enabled their changes get uploaded before
+     */
+    @ApiStatus.Internal
+    public void expire() {
+        final long now = System.currentTimeMillis();
+        final List<CacheKey> expiredKeys = new ArrayList<>();
+
+        this.policyLock.lock();
+        try {
+            this.expirationWheel.advance(now, expiredKeys::add);
+        }finally {
+            this.policyLock.unlock();
+        }
+
+        this.missingKeys.values().removeIf(rememberedUntil -> rememberedUntil <= now);
+
+        for(CacheKey key : expiredKeys) {
+            final @Nullable CachedDataSet cachedDataSet = this.cachedDataSets.get(key);
+
+            if(cachedDataSet == null)
+                continue;
+
+            // Reads and writes don't move the timer, it is checked and moved when it expires
+            final long expiresAt = getExpirationTime(cachedDataSet);
+
+            if(expiresAt > now) {
+                reschedule(key, expiresAt);
+                continue;
+            }
+
+            // Removed after the upload succeeded, otherwise it is kept until it can be written back
+            if(isWriteBackEnabled() && cachedDataSet.isDirty()) {
+                removeAfterWriteBack(cachedDataSet);
+                continue;
+            }
+
+            remove(cachedDataSet);
+        }
+    }
+
+    private void reschedule(@NotNull CacheKey key, long expiresAt) {
+        this.policyLock.lock();
+        try {
+            if(this.cachedDataSets.containsKey(key))
+                this.expirationWheel.schedule(key, expiresAt);
+        }finally {
+            this.policyLock.unlock();
+        }
+    }
+
+    /**
+     * Schedule the expiration timer of a data set. Requires the policy lock
+     * @param cachedDataSet The data set
+     */
+    private void scheduleExpiration(@NotNull CachedDataSet cachedDataSet) {
+        final long expiresAt = getExpirationTime(cachedDataSet);
+
+        if(expiresAt != Long.MAX_VALUE)
+            this.expirationWheel.schedule(cachedDataSet.getKey(), expiresAt);
+    }
+
+    /**
+     * @param cachedDataSet The data set
+     * @return When the data set expires (in ms) or {@link Long#MAX_VALUE} when no expiration is configured
+     */
+    private long getExpirationTime(@NotNull CachedDataSet cachedDataSet) {
+        final int expireAfterWrite = getExpireAfterWrite();
+        final int expireAfterAccess = getExpireAfterAccess();
+
+        long expiresAt = Long.MAX_VALUE;
+
+        if(expireAfterWrite > 0)
+            expiresAt = Math.min(expiresAt, cachedDataSet.getLastWrite() + expireAfterWrite * 1000L);
+
+        if(expireAfterAccess > 0)
+            expiresAt = Math.min(expiresAt, cachedDataSet.getLastAccess() + expireAfterAccess * 1000L);
+
+        return expiresAt;
+    }
+
+    /**
+     * @return true when changed data sets need to be uploaded before they are removed from the cache
+     */
+    private boolean isWriteBackEnabled() {
+        return this.getCacheConfig().get(CacheConfig.CacheProperty.AUTO_UPLOAD) || this.getCacheConfig().get(CacheConfig.CacheProperty.AUTO_SAVE);
+    }
+
+    private int getExpireAfterWrite() {
+        return this.getCacheConfig().get(CacheConfig.CacheProperty.EXPIRE_AFTER_WRITE);
+    }
+
+    private int getExpireAfterAccess() {
+        return this.getCacheConfig().get(CacheConfig.CacheProperty.EXPIRE_AFTER_ACCESS);
+    }
+
+    private int getNegativeTTL() {
+        return this.getCacheConfig().get(CacheConfig.CacheProperty.NEGATIVE_TTL);
+    }
+
+    /**
+     * @param key The key of a data set
+     * @return true when the sql had no data set for the key a short time ago (see {@link CacheConfig.CacheProperty#NEGATIVE_TTL})
+     */
+    private boolean isKnownMissing(@NotNull CacheKey key) {
+        final @Nullable Long rememberedUntil = this.missingKeys.get(key);
+
+        if(rememberedUntil == null)
+            return false;
+
+        if(rememberedUntil <= System.currentTimeMillis()) {
+            this.missingKeys.remove(key, rememberedUntil);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Remember that the sql has no data set for the key
+     * @param key The key of the data set
+     * @param generation The generation when the download was started
+     */
+    private void recordMissing(@NotNull CacheKey key, long generation) {
+        final int negativeTTL = getNegativeTTL();
+
+        if(negativeTTL <= 0 || this.missingKeys.size() >= MAX_MISSING_KEYS || this.cachedDataSets.containsKey(key))
+            return;
+
+        if(this.missingGeneration.get() != generation) // rows were inserted while downloading
+            return;
+
+        this.missingKeys.put(key, System.currentTimeMillis() + negativeTTL * 1000L);
+
+        // Invalidated in the meantime
+        if(this.missingGeneration.get() != generation)
+            this.missingKeys.remove(key);
+    }
+
+    /**
+     * Forget all values which had no data set in the sql. Called when rows are inserted or changed through the table
+     */
+    @ApiStatus.Internal
+    public void invalidateMissing() {
+        this.missingGeneration.incrementAndGet();
+        this.missingKeys.clear();
+    }
+
+    /**
+     * @return The evictor of the configured eviction policy (requires the policy lock)
+     */
+    private @NotNull Evictor<CacheKey> getEvictor() {
+        if(this.evictor == null) {
+            final EvictionPolicy policy = this.getCacheConfig().get(CacheConfig.CacheProperty.EVICTION_POLICY);
+            this.evictor = policy.create(this.getCacheConfig().get(CacheConfig.CacheProperty.MAX_ENTRIES));
+        }
+
+        return this.evictor;
     }
 
     /**
@@ -199,20 +959,252 @@ public class Cache {
      * @throws DatabaseNotConnectedException When the database is not connected
      */
     public @Nullable CachedDataSet get(@NotNull Property property, @NotNull String value) {
+        // Shares the download with other threads which ask for the same data set
+        final CompletableFuture<CachedDataSet> future = getAsync(property, value).toCompletableFuture();
+
+        try {
+            return future.get(2, TimeUnit.SECONDS);
+        }catch(ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+
+            throw new InternalDatabaseError("The download of the data set failed", e.getCause());
+        }catch(TimeoutException e) {
+            throw new InternalDatabaseError("The download of the data set took too long. Is the database still connected?", e);
+        }catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalDatabaseError("Interrupted while waiting for the data set", e);
+        }
+    }
+
+    /**
+     * Get the cached value or download it without blocking. Concurrent calls for the same data set share one download
+     * @param property The property which is used for selecting the data set
+     * @param value The filter for getting the value (= needs to be unique)
+     * @return A future which completes with the cached data set or null when no data set was found (fails with a
+     * {@link DatabaseNotConnectedException} when the database is not connected)
+     */
+    public @NotNull ResponseFuture<CachedDataSet> getAsync(@NotNull Property property, @NotNull String value) {
         final @Nullable CachedDataSet internalSavedDataSet = search(property, value);
 
         if(internalSavedDataSet != null)
-            return internalSavedDataSet;
+            return new ResponseFuture<>(CompletableFuture.completedFuture(internalSavedDataSet));
 
-        final @Nullable CachedDataSet newDownloaded = download(property, value);
+        final CacheKey key = new CacheKey(property, value);
 
-        if(newDownloaded == null)
-            return null;
+        // The sql had no data set for this value a short time ago
+        if(isKnownMissing(key))
+            return new ResponseFuture<>(CompletableFuture.completedFuture(null));
+
+        final CompletableFuture<CachedDataSet> load = new CompletableFuture<>();
+        final @Nullable CompletableFuture<CachedDataSet> runningLoad = this.loads.putIfAbsent(key, load);
+
+        // Another caller is already downloading the data set
+        if(runningLoad != null)
+            return new ResponseFuture<>(runningLoad.copy());
+
+        final long generation = this.missingGeneration.get();
+
+        CompletableFuture<CachedDataSet> download;
+
+        try {
+            download = downloadAsync(property, value);
+        }catch(RuntimeException e) {
+            download = CompletableFuture.failedFuture(e);
+        }
+
+        download.whenComplete((cachedDataSet, throwable) -> {
+            // Removed before completing, so callers after the completion find the saved data set instead
+            if(throwable != null) {
+                this.loads.remove(key, load);
+                load.completeExceptionally(throwable);
+                return;
+            }
+
+            if(cachedDataSet == null)
+                recordMissing(key, generation);
+
+            final @Nullable CachedDataSet result;
+
+            try {
+                result = cachedDataSet == null ? null : saveDownloaded(cachedDataSet);
+            }catch(RuntimeException e) {
+                this.loads.remove(key, load);
+                load.completeExceptionally(e);
+                return;
+            }
+
+            this.loads.remove(key, load);
+            load.complete(result);
+        });
+
+        return new ResponseFuture<>(load.copy()); // the load is shared with later callers
+    }
+
+    /**
+     * Get the cached value or download it without blocking. Concurrent calls for the same data set share one download
+     * @param property The property which is used for selecting the data set
+     * @param value The filter for getting the value (= needs to be unique)
+     * @return A future which completes with the cached data set or null when no data set was found
+     * @throws NullPointerException When the table doesn't have the entered property
+     */
+    public @NotNull ResponseFuture<CachedDataSet> getAsync(@NotNull String property, @NotNull String value) {
+        return this.getAsync(Objects.requireNonNull(getTable().getPropertyByName(property)), value);
+    }
+
+    /**
+     * Get the cached value or download it without blocking by using the primary key property. Concurrent calls for the same data set share one download
+     * @param value The filter for getting the value (= needs to be unique)
+     * @return A future which completes with the cached data set or null when no data set was found
+     * @throws NullPointerException When the table doesn't have a primary key property
+     */
+    public @NotNull ResponseFuture<CachedDataSet> getAsync(@NotNull String value) {
+        return this.getAsync(Objects.requireNonNull(getTable().resolvedTable().asInterpretedTable().getPrimaryKeyProperty()), value);
+    }
+
+    /**
+     * Get the cached values or download the missing ones without blocking. All missing data sets are selected with one
+     * task (WHERE property IN (...), split into chunks of {@link #DEFAULT_LOAD_CHUNK_SIZE} values)
+     * @param property The property which is used for selecting the data sets
+     * @param values The filters for getting the values (= need to be unique)
+     * @return A future which completes with the found data sets by their value (values without a data set are missing)
+     * @throws DatabaseNotConnectedException When the database is not connected and some data sets are not cached
+     */
+    public @NotNull ResponseFuture<Map<String, CachedDataSet>> getAllAsync(@NotNull Property property, @NotNull Collection<String> values) {
+        final Map<String, CachedDataSet> found = new LinkedHashMap<>();
+        final List<String> missing = new ArrayList<>();
+
+        for(String value : new LinkedHashSet<>(values)) {
+            final @Nullable CachedDataSet internalSavedDataSet = search(property, value);
+
+            if(internalSavedDataSet != null) {
+                found.put(value, internalSavedDataSet);
+            }else if(!isKnownMissing(new CacheKey(property, value))) {
+                missing.add(value);
+            }
+        }
+
+        if(missing.isEmpty())
+            return new ResponseFuture<>(CompletableFuture.completedFuture(found));
+
+        final long generation = this.missingGeneration.get();
+
+        return new ResponseFuture<>(downloadAllAsync(property, missing).thenApply(downloaded -> {
+            // Data sets which were saved in the meantime win over the downloaded copies
+            downloaded.forEach((value, cachedDataSet) -> found.put(value, saveDownloaded(cachedDataSet)));
+
+            for(String value : missing) {
+                if(!found.containsKey(value))
+                    recordMissing(new CacheKey(property, value), generation);
+            }
+
+            return found;
+        }));
+    }
+
+    /**
+     * Get the cached values or download the missing ones without blocking by using the primary key property
+     * @param values The filters for getting the values (= need to be unique)
+     * @return A future which completes with the found data sets by their value (values without a data set are missing)
+     * @throws NullPointerException When the table doesn't have a primary key property
+     * @throws DatabaseNotConnectedException When the database is not connected and some data sets are not cached
+     */
+    public @NotNull ResponseFuture<Map<String, CachedDataSet>> getAllAsync(@NotNull Collection<String> values) {
+        return this.getAllAsync(Objects.requireNonNull(getTable().resolvedTable().asInterpretedTable().getPrimaryKeyProperty()), values);
+    }
+
+    /**
+     * Get the cached values or download the missing ones with one task (blocks until the download is finished)
+     * @param property The property which is used for selecting the data sets
+     * @param values The filters for getting the values (= need to be unique)
+     * @return The found data sets by their value (values without a data set are missing)
+     * @throws DatabaseNotConnectedException When the database is not connected and some data sets are not cached
+     * @throws InternalDatabaseError When the download failed
+     */
+    public @NotNull Map<String, CachedDataSet> getAll(@NotNull Property property, @NotNull Collection<String> values) {
+        return getAllAsync(property, values).sync();
+    }
+
+    /**
+     * Get the cached values or download the missing ones with one task by using the primary key property (blocks until the download is finished)
+     * @param values The filters for getting the values (= need to be unique)
+     * @return The found data sets by their value (values without a data set are missing)
+     * @throws NullPointerException When the table doesn't have a primary key property
+     * @throws DatabaseNotConnectedException When the database is not connected and some data sets are not cached
+     * @throws InternalDatabaseError When the download failed
+     */
+    public @NotNull Map<String, CachedDataSet> getAll(@NotNull Collection<String> values) {
+        return getAllAsync(values).sync();
+    }
+
+    /**
+     * Download many data sets in one task. The result sets are converted by the resolver on the worker
+     * @param property The property which is used for selecting the data sets
+     * @param values The filters for getting the values
+     * @return A future which completes with the found data sets by their value
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    private @NotNull CompletableFuture<Map<String, CachedDataSet>> downloadAllAsync(@NotNull Property property, @NotNull List<String> values) {
+        final CompletableFuture<Map<String, CachedDataSet>> future = new CompletableFuture<>();
+        final Property[] properties = getTable().resolvedTable().asInterpretedTable().getProperties();
+
+        final Task task = getConnectionBridge().executeConnectionTask(Task.create(connection -> {
+            final Map<String, CachedDataSet> downloaded = new LinkedHashMap<>();
+            final long time = System.currentTimeMillis();
+
+            for(int from = 0; from < values.size(); from += DEFAULT_LOAD_CHUNK_SIZE) {
+                final List<String> chunk = values.subList(from, Math.min(from + DEFAULT_LOAD_CHUNK_SIZE, values.size()));
+                final int bucket = bucketOf(chunk.size());
+                final String query = String.format("SELECT * FROM `%s` WHERE `%s` IN (%s)", getTable().resolvedTable().getId(), property.getName(), String.join(", ", Collections.nCopies(bucket, "?")));
+                final PreparedStatement statement = getConnectionBridge().getPool().prepare(connection, query);
+
+                // The free parameters repeat the last value (doesn't change the result)
+                for(int i = 0; i < bucket; i++)
+                    statement.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+
+                // The sql compares case insensitive (default collation), so the rows are mapped back to the requested values
+                final Map<String, List<String>> requested = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+                for(String value : chunk)
+                    requested.computeIfAbsent(value, v -> new ArrayList<>()).add(value);
+
+                try(ResultSet resultSet = statement.executeQuery()) {
+                    while(resultSet.next()) {
+                        final String sqlValue = resultSet.getString(property.getName());
 
-        // Save the downloaded data set
-        save(newDownloaded);
+                        for(String value : requested.getOrDefault(sqlValue, List.of(sqlValue)))
+                            downloaded.put(value, createDownloaded(property, value, resultSet, properties, time));
+                    }
+                }
+            }
 
-        return newDownloaded;
+            future.complete(downloaded);
+        }));
+
+        task.getResponse().onFailure(future::completeExceptionally);
+        return future;
+    }
+
+    /**
+     * @param size The amount of values of a chunk
+     * @return The size of the smallest IN list which fits the values
+     */
+    private static int bucketOf(int size) {
+        for(int bucket : LOAD_BUCKETS) {
+            if(size <= bucket)
+                return bucket;
+        }
+
+        return size;
+    }
+
+    /**
+     * Save a downloaded data set unless the same data set got saved in the meantime
+     * @param cachedDataSet The downloaded data set
+     * @return The data set which is in the cache now
+     */
+    private @NotNull CachedDataSet saveDownloaded(@NotNull CachedDataSet cachedDataSet) {
+        return computeIfAbsent(cachedDataSet.getProperty(), cachedDataSet.getValue(), key -> cachedDataSet);
     }
 
     /**
@@ -245,7 +1237,7 @@ public class Cache {
      * @return A list of all cached data sets
      */
     public @NotNull List<CachedDataSet> getAllCachedDataSets() {
-        return new ArrayList<>(this.cachedDataSets);
+        return new ArrayList<>(this.cachedDataSets.values());
     }
 
 }
@@ -1,6 +1,7 @@
 package net.cytocloud.pasyncsql.lib.api.types;
 
 import lombok.Getter;
+import net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction.EvictionPolicy;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
@@ -21,10 +22,15 @@ public class CacheConfig {
         storage.put(CacheProperty.AUTO_UPLOAD, true);
         storage.put(CacheProperty.AUTO_SAVE, false);
         storage.put(CacheProperty.AUTO_EMPTY, false);
+        storage.put(CacheProperty.EVICTION_POLICY, EvictionPolicy.FIFO);
+        storage.put(CacheProperty.EXPIRE_AFTER_WRITE, -1);
+        storage.put(CacheProperty.EXPIRE_AFTER_ACCESS, -1);
+        storage.put(CacheProperty.NEGATIVE_TTL, -1);
+        storage.put(CacheProperty.INDEXED_PROPERTIES, new String[0]);
     }
 
     public <T> void set(@NotNull CacheProperty property, @NotNull T value) {
-        if(value.getClass().equals(property.getType())) throw new IllegalArgumentException("Illegal type for property \"" + property.name() + "\"");
+        if(!property.isValid(value)) throw new IllegalArgumentException("Illegal type for property \"" + property.name() + "\"");
 
         storage.remove(property);
         storage.put(property, value);
@@ -38,7 +44,11 @@ public class CacheConfig {
     public enum CacheProperty {
 
         MAX_ENTRIES (int.class), SAVE_INTERVAL (int.class),
-        AUTO_UPLOAD (boolean.class), AUTO_SAVE (boolean.class), AUTO_EMPTY (boolean.class);
+        AUTO_UPLOAD (boolean.class), AUTO_SAVE (boolean.class), AUTO_EMPTY (boolean.class),
+        EVICTION_POLICY (EvictionPolicy.class),
+        EXPIRE_AFTER_WRITE (int.class), EXPIRE_AFTER_ACCESS (int.class),
+        NEGATIVE_TTL (int.class),
+        INDEXED_PROPERTIES (String[].class);
 
         private final @NotNull Class<?> type;
 
@@ -46,6 +56,23 @@ public class CacheConfig {
             this.type = type;
         }
 
+        /**
+         * @param value The value
+         * @return true when the value has the type of this property (primitive types accept their wrapper)
+         */
+        public boolean isValid(@NotNull Object value) {
+            if(this.type == int.class)
+                return value instanceof Integer;
+
+            if(this.type == long.class)
+                return value instanceof Long;
+
+            if(this.type == boolean.class)
+                return value instanceof Boolean;
+
+            return this.type.isInstance(value);
+        }
+
 
     }
 
@@ -7,6 +7,7 @@ import net.cytocloud.pasyncsql.lib.worker.ConnectionBridge;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class Connection {
 
@@ -33,4 +34,10 @@ public abstract class Connection {
         return ((DatabaseAdapterInterpreter.InterpretedConnection)this).getInterpretedTables();
     }
 
+    /**
+     * Operations which are chained to this future wait until the connection can be used
+     * @return A future which completes when the tables and caches are bound (or fails when the tables couldn't be registered)
+     */
+    public abstract @NotNull CompletableFuture<Connection> whenReady();
+
 }
@@ -6,17 +6,42 @@ import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
 import net.cytocloud.pasyncsql.lib.api.adapter.interpreter.DatabaseAdapterInterpreter;
 import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRow;
 import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowEntry;
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
+import net.cytocloud.pasyncsql.lib.api.types.resolved.mapper.RowMapper;
 import net.cytocloud.pasyncsql.lib.worker.ConnectionBridge;
+import net.cytocloud.pasyncsql.lib.worker.helper.DetachedQueryTask;
+import net.cytocloud.pasyncsql.lib.worker.helper.ResultStreamPublisher;
 import net.cytocloud.pasyncsql.lib.worker.helper.Task;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 public class ResolvedTable extends Table {
 
+    public static final int DEFAULT_BATCH_SIZE = 500; // how many rows are inserted/updated at once by the bulk operations
+
     private final @NotNull DatabaseAdapterInterpreter.InterpretedTable interpretedTable;
 
     @Getter
     private final @NotNull ConnectionBridge connection;
 
+    private final @NotNull Map<QueryShape, String> preparedQueries = new ConcurrentHashMap<>();
+    private final @NotNull List<Runnable> modificationListeners = new CopyOnWriteArrayList<>();
+    private final @NotNull Map<Class<?>, RowMapper<?>> mappers = new ConcurrentHashMap<>();
+
     public ResolvedTable(@NotNull String id, @NotNull DatabaseAdapterInterpreter.InterpretedTable interpretedTable, @NotNull ConnectionBridge connection) {
         super(id);
 
@@ -24,18 +49,328 @@ public class ResolvedTable extends Table {
         this.connection = connection;
     }
 
+    /**
+     * Add a listener which is called when rows are inserted or changed through this table. It is called when the request
+     * is created and again after it got executed
+     * @param listener The listener
+     */
+    public void addModificationListener(@NotNull Runnable listener) {
+        this.modificationListeners.add(listener);
+    }
+
+    private @NotNull Task notifyModification(@NotNull Task task) {
+        this.modificationListeners.forEach(Runnable::run);
+        task.addExecutorListener(t -> this.modificationListeners.forEach(Runnable::run));
+
+        return task;
+    }
+
     public @NotNull Task insert(@NotNull TableRow tableRow) {
         final String sql = String.format("INSERT INTO `%s` (%s) VALUES (%s)", this.getId(), getFormattedProperties(), tableRow.getFormattedTableRowValues());
-        return getConnection().executeSQLUpdate(sql);
+        return notifyModification(getConnection().executeSQLUpdate(sql));
     }
 
     public @NotNull Task insert(@NotNull TableRowEntry... entries) {
         return this.insert(TableRow.from(this).addAll(entries).build());
     }
 
+    /**
+     * INSERT INTO `table` (property1, property2, ...) VALUES (?, ?, ...) with a cached prepared statement
+     * @param values The values (bound by the type of their property)
+     * @return The created task for the request
+     */
+    public @NotNull Task insertPrepared(@NotNull TableRowValue... values) {
+        final String sql = preparedQuery(new QueryShape(QueryShape.Operation.INSERT, null, values), () -> {
+            StringBuilder properties = new StringBuilder();
+            StringBuilder parameters = new StringBuilder();
+
+            for(TableRowValue value : values) {
+                properties.append("`").append(value.property().getName()).append("`, ");
+                parameters.append("?, ");
+            }
+
+            return String.format("INSERT INTO `%s` (%s) VALUES (%s)", this.getId(), properties.substring(0, properties.length()-2), parameters.substring(0, parameters.length()-2));
+        });
+
+        return notifyModification(getConnection().executePreparedSQLUpdate(sql, values));
+    }
+
+    /**
+     * UPDATE `table` SET property1 = ?, ... WHERE property = ? with a cached prepared statement
+     * @param condition The property and value which selects the updated rows
+     * @param values The new values (bound by the type of their property)
+     * @return The created task for the request
+     * @throws IllegalArgumentException When no values are entered
+     */
+    public @NotNull Task updatePrepared(@NotNull TableRowValue condition, @NotNull TableRowValue... values) {
+        if(values.length == 0)
+            throw new IllegalArgumentException("At least one value needs to be updated");
+
+        final String sql = preparedQuery(new QueryShape(QueryShape.Operation.UPDATE, condition.property(), values), () -> {
+            StringBuilder properties = new StringBuilder();
+
+            for(TableRowValue value : values)
+                properties.append("`").append(value.property().getName()).append("` = ?, ");
+
+            return String.format("UPDATE `%s` SET %s WHERE `%s` = ?", this.getId(), properties.substring(0, properties.length()-2), condition.property().getName());
+        });
+
+        final TableRowValue[] parameters = Arrays.copyOf(values, values.length + 1);
+        parameters[values.length] = condition;
+
+        return notifyModification(getConnection().executePreparedSQLUpdate(sql, parameters));
+    }
+
+    /**
+     * INSERT INTO `table` (...) VALUES (?, ...) AS `new` ON DUPLICATE KEY UPDATE ... with a cached prepared statement
+     * (the existing row with the same primary key is updated, see {@link #getUpsertSuffix(Collection, boolean)})
+     * @param values The values (bound by the type of their property, including the primary key)
+     * @return The created task for the request
+     */
+    public @NotNull Task upsertPrepared(@NotNull TableRowValue... values) {
+        return this.upsertAllPrepared(List.<TableRowValue[]>of(values), 1);
+    }
+
+    /**
+     * SELECT * FROM `table` WHERE property = ? with a cached prepared statement (the whole result is read on the worker)
+     * @param condition The property and value which selects the rows
+     * @return The created task for the request
+     */
+    public @NotNull DetachedQueryTask selectAllPrepared(@NotNull TableRowValue condition) {
+        final String sql = preparedQuery(new QueryShape(QueryShape.Operation.SELECT, condition.property()), () ->
+            String.format("SELECT * FROM `%s` WHERE `%s` = ?", this.getId(), condition.property().getName())
+        );
+
+        return getConnection().executePreparedSQLQuery(sql, new TableRowValue[] { condition }, asInterpretedTable().getProperties());
+    }
+
+    /**
+     * Get the mapper of a record or class (created once per type)
+     * @param type The type of the rows
+     * @return The mapper
+     * @param <T> The type of the rows
+     * @throws net.cytocloud.pasyncsql.lib.api.types.resolved.mapper.exceptions.InvalidRowTypeException When the type doesn't match the table
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @NotNull RowMapper<T> getMapper(@NotNull Class<T> type) {
+        return (RowMapper<T>) this.mappers.computeIfAbsent(type, t -> RowMapper.of(t, asInterpretedTable().getProperties()));
+    }
+
+    /**
+     * Insert an object with a cached prepared statement
+     * @param object The record or object of the row
+     * @return The created task for the request
+     * @see #getMapper(Class)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @NotNull Task insertMapped(@NotNull T object) {
+        return insertPrepared(getMapper((Class<T>) object.getClass()).toValues(object));
+    }
+
+    /**
+     * SELECT * FROM `table` and map every row on the worker
+     * @param type The type of the rows
+     * @return A future which completes with the objects of the rows
+     * @see #getMapper(Class)
+     */
+    public <T> @NotNull CompletableFuture<List<T>> selectAllMapped(@NotNull Class<T> type) {
+        return selectMapped(type, String.format("SELECT * FROM `%s`", this.getId()));
+    }
+
+    /**
+     * SELECT * FROM `table` WHERE condition and map every row on the worker
+     * @param type The type of the rows
+     * @param condition The condition
+     * @return A future which completes with the objects of the rows
+     * @see #getMapper(Class)
+     */
+    public <T> @NotNull CompletableFuture<List<T>> selectAllMapped(@NotNull Class<T> type, @NotNull String condition) {
+        return selectMapped(type, String.format("SELECT * FROM `%s` WHERE ", this.getId()) + condition);
+    }
+
+    private <T> @NotNull CompletableFuture<List<T>> selectMapped(@NotNull Class<T> type, @NotNull String sql) {
+        final RowMapper<T> mapper = getMapper(type);
+        final CompletableFuture<List<T>> future = new CompletableFuture<>();
+
+        final Task task = this.connection.executeConnectionTask(Task.create(sqlConnection -> {
+            try(Statement statement = sqlConnection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+                future.complete(mapper.mapAll(resultSet));
+            }
+        }));
+
+        task.getResponse().onFailure(future::completeExceptionally);
+        return future;
+    }
+
+    private @NotNull String preparedQuery(@NotNull QueryShape shape, @NotNull Supplier<String> queryBuilder) {
+        return this.preparedQueries.computeIfAbsent(shape, s -> queryBuilder.get());
+    }
+
+    /**
+     * Insert many rows in one task with one cached prepared statement (INSERT INTO `table` (...) VALUES (?, ...)). Every
+     * row is bound and added to the batch, all rows need values for the same properties in the same order
+     * @param rows The values of the rows (bound by the type of their property)
+     * @param batchSize How many rows are sent at once
+     * @return The created task for the request
+     * @throws IllegalArgumentException When the rows have different properties
+     */
+    public @NotNull Task insertAllPrepared(@NotNull Collection<TableRowValue[]> rows, int batchSize) {
+        final List<TableRowValue[]> rowList = checkShape(rows);
+
+        if(rowList.isEmpty())
+            return getConnection().executeConnectionTask(Task.create(connection -> {}));
+
+        final TableRowValue[] first = rowList.get(0);
+        final String sql = preparedQuery(new QueryShape(QueryShape.Operation.INSERT, null, first), () ->
+            String.format("INSERT INTO `%s` (%s) VALUES (%s)", this.getId(), formatNames(first), formatParameters(first.length))
+        );
+
+        return notifyModification(getConnection().executePreparedSQLBatch(sql, rowList, batchSize));
+    }
+
+    /**
+     * Insert many rows in one task with the default batch size ({@link #DEFAULT_BATCH_SIZE})
+     * @param rows The values of the rows (bound by the type of their property)
+     * @return The created task for the request
+     * @see #insertAllPrepared(Collection, int)
+     */
+    public @NotNull Task insertAllPrepared(@NotNull Collection<TableRowValue[]> rows) {
+        return this.insertAllPrepared(rows, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Insert or update many rows in one task with one cached prepared statement (the existing row with the same primary
+     * key is updated). All rows need values for the same properties in the same order (including the primary key)
+     * @param rows The values of the rows (bound by the type of their property)
+     * @param batchSize How many rows are sent at once
+     * @return The created task for the request
+     * @throws IllegalArgumentException When the rows have different properties
+     */
+    public @NotNull Task upsertAllPrepared(@NotNull Collection<TableRowValue[]> rows, int batchSize) {
+        final List<TableRowValue[]> rowList = checkShape(rows);
+
+        if(rowList.isEmpty())
+            return getConnection().executeConnectionTask(Task.create(connection -> {}));
+
+        final TableRowValue[] first = rowList.get(0);
+        final boolean rowAlias = getConnection().isRowAliasSupported();
+        final String sql = preparedQuery(new QueryShape(rowAlias ? QueryShape.Operation.UPSERT : QueryShape.Operation.UPSERT_LEGACY, null, first), () ->
+            String.format("INSERT INTO `%s` (%s) VALUES (%s)", this.getId(), formatNames(first), formatParameters(first.length)) + getUpsertSuffix(Arrays.stream(first).map(TableRowValue::property).toList(), rowAlias)
+        );
+
+        return notifyModification(getConnection().executePreparedSQLBatch(sql, rowList, batchSize));
+    }
+
+    /**
+     * Insert or update many rows in one task with the default batch size ({@link #DEFAULT_BATCH_SIZE})
+     * @param rows The values of the rows (bound by the type of their property)
+     * @return The created task for the request
+     * @see #upsertAllPrepared(Collection, int)
+     */
+    public @NotNull Task upsertAllPrepared(@NotNull Collection<TableRowValue[]> rows) {
+        return this.upsertAllPrepared(rows, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Update many rows in one task with one cached prepared statement (UPDATE `table` SET ... = ? WHERE primaryKey = ?).
+     * Every row is selected by its primary key value, all rows need values for the same properties in the same order
+     * @param rows The values of the rows (bound by the type of their property, including the primary key)
+     * @param batchSize How many rows are sent at once
+     * @return The created task for the request
+     * @throws IllegalArgumentException When the rows have different properties or no value for the primary key
+     */
+    public @NotNull Task updateAllPrepared(@NotNull Collection<TableRowValue[]> rows, int batchSize) {
+        final List<TableRowValue[]> rowList = checkShape(rows);
+
+        if(rowList.isEmpty())
+            return getConnection().executeConnectionTask(Task.create(connection -> {}));
+
+        final Property primaryKey = Objects.requireNonNull(asInterpretedTable().getPrimaryKeyProperty());
+        final int primaryKeyIndex = Arrays.stream(rowList.get(0)).map(TableRowValue::property).toList().indexOf(primaryKey);
+
+        if(primaryKeyIndex == -1)
+            throw new IllegalArgumentException("The rows have no value for the primary key \"" + primaryKey.getName() + "\"");
+
+        // Move the primary key to the end (the parameter of the WHERE clause)
+        final List<TableRowValue[]> parameters = new ArrayList<>(rowList.size());
+
+        for(TableRowValue[] row : rowList) {
+            final TableRowValue[] moved = new TableRowValue[row.length];
+            int index = 0;
+
+            for(int i = 0; i < row.length; i++) {
+                if(i != primaryKeyIndex)
+                    moved[index++] = row[i];
+            }
+
+            moved[index] = row[primaryKeyIndex];
+            parameters.add(moved);
+        }
+
+        final TableRowValue[] values = Arrays.copyOf(parameters.get(0), parameters.get(0).length - 1);
+        final String sql = preparedQuery(new QueryShape(QueryShape.Operation.UPDATE_BY_KEY, primaryKey, values), () -> {
+            StringBuilder properties = new StringBuilder();
+
+            for(TableRowValue value : values)
+                properties.append("`").append(value.property().getName()).append("` = ?, ");
+
+            // Only the primary key is available -> nothing to update
+            if(properties.length() == 0)
+                properties.append("`").append(primaryKey.getName()).append("` = `").append(primaryKey.getName()).append("`, ");
+
+            return String.format("UPDATE `%s` SET %s WHERE `%s` = ?", this.getId(), properties.substring(0, properties.length()-2), primaryKey.getName());
+        });
+
+        return notifyModification(getConnection().executePreparedSQLBatch(sql, parameters, batchSize));
+    }
+
+    /**
+     * Update many rows in one task with the default batch size ({@link #DEFAULT_BATCH_SIZE})
+     * @param rows The values of the rows (bound by the type of their property, including the primary key)
+     * @return The created task for the request
+     * @see #updateAllPrepared(Collection, int)
+     */
+    public @NotNull Task updateAllPrepared(@NotNull Collection<TableRowValue[]> rows) {
+        return this.updateAllPrepared(rows, DEFAULT_BATCH_SIZE);
+    }
+
+    private static @NotNull List<TableRowValue[]> checkShape(@NotNull Collection<TableRowValue[]> rows) {
+        final List<TableRowValue[]> rowList = new ArrayList<>(rows);
+
+        if(rowList.isEmpty())
+            return rowList;
+
+        final TableRowValue[] first = rowList.get(0);
+
+        for(TableRowValue[] row : rowList) {
+            if(row.length != first.length)
+                throw new IllegalArgumentException("All rows need values for the same properties");
+
+            for(int i = 0; i < row.length; i++) {
+                if(row[i].property() != first[i].property())
+                    throw new IllegalArgumentException("All rows need values for the same properties in the same order");
+            }
+        }
+
+        return rowList;
+    }
+
+    private static @NotNull String formatNames(@NotNull TableRowValue[] values) {
+        StringBuilder names = new StringBuilder();
+
+        for(TableRowValue value : values)
+            names.append("`").append(value.property().getName()).append("`, ");
+
+        return names.substring(0, names.length()-2);
+    }
+
+    private static @NotNull String formatParameters(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
     public @NotNull Task update(@NotNull TableRow tableRow, @NotNull String condition) {
         final String sql = String.format("UPDATE `%s` SET %s WHERE %s", this.getId(), getSetFormattedProperties(tableRow), condition);
-        return getConnection().executeSQLUpdate(sql);
+        return notifyModification(getConnection().executeSQLUpdate(sql));
 
     }
 
@@ -57,7 +392,43 @@ public class ResolvedTable extends Table {
      * @return The created task for the request
      */
     public @NotNull Task selectAll(@NotNull String condition) {
-        return this.connection.executeSQLQuery(String.format("SELECT * FROM `%s` WHERE " + condition, this.getId()));
+        return this.connection.executeSQLQuery(String.format("SELECT * FROM `%s` WHERE ", this.getId()) + condition);
+    }
+
+    /**
+     * SELECT * FROM `table` (the whole result is read on the worker and the statement gets closed directly)
+     * @return The created task for the request
+     */
+    public @NotNull DetachedQueryTask selectAllDetached() {
+        return this.connection.executeDetachedSQLQuery(String.format("SELECT * FROM `%s`", this.getId()), asInterpretedTable().getProperties());
+    }
+
+    /**
+     * SELECT * FROM `table` WHERE condition (the whole result is read on the worker and the statement gets closed directly)
+     * @param condition The condition
+     * @return The created task for the request
+     */
+    public @NotNull DetachedQueryTask selectAllDetached(@NotNull String condition) {
+        return this.connection.executeDetachedSQLQuery(String.format("SELECT * FROM `%s` WHERE ", this.getId()) + condition, asInterpretedTable().getProperties());
+    }
+
+    /**
+     * SELECT * FROM `table` streamed in chunks (the memory usage doesn't depend on the size of the table)
+     * @param fetchSize How many rows are fetched at once (also the maximum size of a chunk)
+     * @return The publisher of the chunks (the query is executed for every subscriber)
+     */
+    public @NotNull ResultStreamPublisher selectAllStreamed(int fetchSize) {
+        return this.connection.streamSQLQuery(String.format("SELECT * FROM `%s`", this.getId()), fetchSize, asInterpretedTable().getProperties());
+    }
+
+    /**
+     * SELECT * FROM `table` WHERE condition streamed in chunks (the memory usage doesn't depend on the size of the result)
+     * @param condition The condition
+     * @param fetchSize How many rows are fetched at once (also the maximum size of a chunk)
+     * @return The publisher of the chunks (the query is executed for every subscriber)
+     */
+    public @NotNull ResultStreamPublisher selectAllStreamed(@NotNull String condition, int fetchSize) {
+        return this.connection.streamSQLQuery(String.format("SELECT * FROM `%s` WHERE ", this.getId()) + condition, fetchSize, asInterpretedTable().getProperties());
     }
 
     /**
@@ -123,10 +494,63 @@ public class ResolvedTable extends Table {
         return bd.toString();
     }
 
+    /**
+     * The inserted row is referenced with the row alias `new` (MySQL 8.0.19+). VALUES() is deprecated since MySQL 8.0.20,
+     * but it is the only way on older MySQL versions and MariaDB (which doesn't support row aliases)
+     * @param properties The properties which get updated on a duplicate key (the primary key is skipped)
+     * @param rowAlias Whether the database supports row aliases (see {@link ConnectionBridge#isRowAliasSupported()})
+     * @return AS `new` ON DUPLICATE KEY UPDATE `property1` = `new`.`property1`, ... or ON DUPLICATE KEY UPDATE `property1` = VALUES(`property1`), ...
+     */
+    private @NotNull String getUpsertSuffix(@NotNull Collection<Property> properties, boolean rowAlias) {
+        return (rowAlias ? " AS `new` ON DUPLICATE KEY UPDATE " : " ON DUPLICATE KEY UPDATE ") + getDuplicateKeyFormattedProperties(properties, rowAlias);
+    }
+
+    /**
+     * @param properties The properties which get updated on a duplicate key (the primary key is skipped)
+     * @param rowAlias Whether the inserted row is referenced with the row alias `new` or VALUES()
+     * @return `property1` = `new`.`property1`, ... or `property1` = VALUES(`property1`), ...
+     */
+    private @NotNull String getDuplicateKeyFormattedProperties(@NotNull Collection<Property> properties, boolean rowAlias) {
+        StringBuilder bd = new StringBuilder();
+
+        for(Property property : asInterpretedTable().getProperties()) {
+            if(property.isPrimary() || !properties.contains(property))
+                continue;
+
+            if(rowAlias) {
+                bd.append("`").append(property.getName()).append("` = `new`.`").append(property.getName()).append("`, ");
+            }else {
+                bd.append("`").append(property.getName()).append("` = VALUES(`").append(property.getName()).append("`), ");
+            }
+        }
+
+        // Only the primary key is available -> nothing to update
+        if(bd.length() == 0) {
+            final Property primaryKey = Objects.requireNonNull(asInterpretedTable().getPrimaryKeyProperty());
+            return "`" + primaryKey.getName() + "` = `" + primaryKey.getName() + "`";
+        }
+
+        bd.delete(bd.length()-2, bd.length());
+
+        return bd.toString();
+    }
+
     public @NotNull DatabaseAdapterInterpreter.InterpretedTable asInterpretedTable() {
         return this.interpretedTable;
     }
 
+    /**
+     * Identifies the sql of a prepared query by the operation and the used properties
+     */
+    private record QueryShape(@NotNull Operation operation, @Nullable Property condition, @NotNull List<Property> properties) {
+
+        QueryShape(@NotNull Operation operation, @Nullable Property condition, @NotNull TableRowValue... values) {
+            this(operation, condition, Arrays.stream(values).map(TableRowValue::property).toList());
+        }
+
+        enum Operation { INSERT, UPDATE, UPDATE_BY_KEY, UPSERT, UPSERT_LEGACY, SELECT }
+
+    }
 
 
 }
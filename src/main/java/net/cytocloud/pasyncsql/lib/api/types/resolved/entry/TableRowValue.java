@@ -0,0 +1,13 @@
+package net.cytocloud.pasyncsql.lib.api.types.resolved.entry;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A not formatted value of a property. It gets bound as parameter of a prepared statement (see {@link TableRowEntry} for sql formatted values)
+ */
+public record TableRowValue(@NotNull Property property, @Nullable Object value) {
+
+
+}
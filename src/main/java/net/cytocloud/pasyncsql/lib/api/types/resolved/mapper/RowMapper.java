@@ -0,0 +1,243 @@
+package net.cytocloud.pasyncsql.lib.api.types.resolved.mapper;
+
+import lombok.Getter;
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
+import net.cytocloud.pasyncsql.lib.api.types.resolved.mapper.exceptions.InvalidRowTypeException;
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import net.cytocloud.pasyncsql.lib.api.types.standard.codec.PropertyCodec;
+import net.cytocloud.pasyncsql.lib.api.types.standard.codec.PropertyCodecs;
+import net.cytocloud.pasyncsql.lib.worker.exceptions.InternalDatabaseError;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps the rows of a table to a record or class. Records are created with their canonical constructor, classes with
+ * their no-args constructor and their fields (every component/field needs a property with the same name). The method
+ * handles are created once, the values are read with the codecs of the properties by the index of their column
+ * @param <T> The type of the rows
+ */
+public final class RowMapper<T> {
+
+    @Getter
+    private final @NotNull Class<T> type;
+
+    private final @NotNull Property[] properties; // the mapped properties (in the order of the components/fields)
+    private final @NotNull int[] columns; // the column of every mapped property (starting with 1)
+    private final @NotNull MethodHandle factory; // records: (Object[]) -> Object, classes: () -> Object
+    private final @Nullable MethodHandle[] setters; // (Object, Object) -> void (null for records)
+    private final @NotNull MethodHandle[] getters; // (Object) -> Object
+
+    private RowMapper(@NotNull Class<T> type, @NotNull Property[] properties, @NotNull int[] columns, @NotNull MethodHandle factory, @Nullable MethodHandle[] setters, @NotNull MethodHandle[] getters) {
+        this.type = type;
+        this.properties = properties;
+        this.columns = columns;
+        this.factory = factory;
+        this.setters = setters;
+        this.getters = getters;
+    }
+
+    /**
+     * Create the mapper of a type
+     * @param type The record or class
+     * @param tableProperties The properties of the table (from a table schema)
+     * @return The mapper
+     * @param <T> The type of the rows
+     * @throws InvalidRowTypeException When the type doesn't match the table (e.g. a missing property or a component/field
+     * whose type doesn't fit the values of its property)
+     */
+    public static <T> @NotNull RowMapper<T> of(@NotNull Class<T> type, @NotNull Property[] tableProperties) {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            return type.isRecord() ? ofRecord(type, tableProperties, lookup) : ofClass(type, tableProperties, lookup);
+        }catch(IllegalAccessException | NoSuchMethodException e) {
+            throw new InvalidRowTypeException(type, "the constructor or a member isn't accessible", e);
+        }
+    }
+
+    private static <T> @NotNull RowMapper<T> ofRecord(@NotNull Class<T> type, @NotNull Property[] tableProperties, @NotNull MethodHandles.Lookup lookup) throws IllegalAccessException, NoSuchMethodException {
+        final RecordComponent[] components = type.getRecordComponents();
+        final Property[] properties = new Property[components.length];
+        final int[] columns = new int[components.length];
+        final MethodHandle[] getters = new MethodHandle[components.length];
+
+        for(int i = 0; i < components.length; i++) {
+            columns[i] = columnOf(type, components[i].getName(), tableProperties);
+            properties[i] = tableProperties[columns[i] - 1];
+            checkType(type, components[i].getName(), components[i].getType(), properties[i]);
+            getters[i] = lookup.unreflect(components[i].getAccessor()).asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        final Class<?>[] parameters = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+        final MethodHandle factory = lookup.findConstructor(type, MethodType.methodType(void.class, parameters))
+            .asSpreader(Object[].class, parameters.length)
+            .asType(MethodType.methodType(Object.class, Object[].class));
+
+        return new RowMapper<>(type, properties, columns, factory, null, getters);
+    }
+
+    private static <T> @NotNull RowMapper<T> ofClass(@NotNull Class<T> type, @NotNull Property[] tableProperties, @NotNull MethodHandles.Lookup lookup) throws IllegalAccessException, NoSuchMethodException {
+        final List<Field> fields = Arrays.stream(type.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()))
+            .toList();
+
+        final Property[] properties = new Property[fields.size()];
+        final int[] columns = new int[fields.size()];
+        final MethodHandle[] setters = new MethodHandle[fields.size()];
+        final MethodHandle[] getters = new MethodHandle[fields.size()];
+
+        for(int i = 0; i < fields.size(); i++) {
+            final Field field = fields.get(i);
+
+            if(Modifier.isFinal(field.getModifiers()))
+                throw new InvalidRowTypeException(type, "the field \"" + field.getName() + "\" is final (use a record for immutable rows)");
+
+            columns[i] = columnOf(type, field.getName(), tableProperties);
+            properties[i] = tableProperties[columns[i] - 1];
+            checkType(type, field.getName(), field.getType(), properties[i]);
+            setters[i] = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            getters[i] = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        final MethodHandle factory = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+
+        return new RowMapper<>(type, properties, columns, factory, setters, getters);
+    }
+
+    /**
+     * @return The column of the property with the name (starting with 1)
+     */
+    private static int columnOf(@NotNull Class<?> type, @NotNull String name, @NotNull Property[] tableProperties) {
+        for(int i = 0; i < tableProperties.length; i++) {
+            if(tableProperties[i].getName().equalsIgnoreCase(name))
+                return i + 1;
+        }
+
+        throw new InvalidRowTypeException(type, "the table has no property \"" + name + "\"");
+    }
+
+    /**
+     * Check that the values of a property fit into its component/field (only for the built-in codecs, the type of an own codec isn't known)
+     * @throws InvalidRowTypeException When the type doesn't match
+     */
+    private static void checkType(@NotNull Class<?> type, @NotNull String name, @NotNull Class<?> memberType, @NotNull Property property) {
+        final @Nullable Class<?> valueType = valueTypeOf(property);
+
+        if(valueType == null)
+            return;
+
+        final Class<?> boxedType = MethodType.methodType(memberType).wrap().returnType();
+
+        if(!boxedType.isAssignableFrom(valueType))
+            throw new InvalidRowTypeException(type, "\"" + name + "\" is a " + memberType.getSimpleName() + ", but the property is " + property.getType() + " (" + valueType.getSimpleName() + ")");
+    }
+
+    /**
+     * @param property The property
+     * @return The type of the values of the property or null when it has an own codec
+     */
+    private static @Nullable Class<?> valueTypeOf(@NotNull Property property) {
+        final PropertyCodec<?> codec = property.getCodec();
+
+        if(codec == PropertyCodecs.STRING)
+            return String.class;
+
+        if(codec == PropertyCodecs.INTEGER)
+            return Integer.class;
+
+        if(codec == PropertyCodecs.LONG)
+            return Long.class;
+
+        return null;
+    }
+
+    /**
+     * Create an object of the current row (the result set is not moved). The columns need to be in the order of the
+     * table schema (like SELECT * of the table)
+     * @param resultSet The result set which points to the row
+     * @return The object of the row
+     * @throws SQLException Could occur in the result set
+     * @throws InternalDatabaseError When a value doesn't fit into its component/field (e.g. NULL for a primitive)
+     */
+    public @NotNull T map(@NotNull ResultSet resultSet) throws SQLException {
+        try {
+            if(this.setters == null) {
+                final Object[] arguments = new Object[this.properties.length];
+
+                for(int i = 0; i < this.properties.length; i++)
+                    arguments[i] = decode(resultSet, i);
+
+                return this.type.cast((Object) this.factory.invokeExact(arguments));
+            }
+
+            final Object object = (Object) this.factory.invokeExact();
+
+            for(int i = 0; i < this.properties.length; i++)
+                this.setters[i].invokeExact(object, decode(resultSet, i));
+
+            return this.type.cast(object);
+        }catch(SQLException e) {
+            throw e;
+        }catch(Throwable e) {
+            throw new InternalDatabaseError("Couldn't map the row to \"" + this.type.getName() + "\"", e);
+        }
+    }
+
+    /**
+     * Create the objects of all remaining rows
+     * @param resultSet The result set
+     * @return The objects of the rows
+     * @throws SQLException Could occur in the result set
+     * @throws InternalDatabaseError When a row couldn't be mapped
+     */
+    public @NotNull List<T> mapAll(@NotNull ResultSet resultSet) throws SQLException {
+        final List<T> objects = new ArrayList<>();
+
+        while(resultSet.next())
+            objects.add(map(resultSet));
+
+        return objects;
+    }
+
+    /**
+     * Get the values of an object (e.g. for {@link net.cytocloud.pasyncsql.lib.api.types.resolved.ResolvedTable#insertPrepared(TableRowValue...)})
+     * @param object The object
+     * @return The values of the mapped properties
+     * @throws InternalDatabaseError When a value couldn't be read
+     */
+    public @NotNull TableRowValue[] toValues(@NotNull T object) {
+        final TableRowValue[] values = new TableRowValue[this.properties.length];
+
+        try {
+            for(int i = 0; i < this.properties.length; i++)
+                values[i] = new TableRowValue(this.properties[i], (Object) this.getters[i].invokeExact((Object) object));
+        }catch(Throwable e) {
+            throw new InternalDatabaseError("Couldn't read the values of \"" + this.type.getName() + "\"", e);
+        }
+
+        return values;
+    }
+
+    /**
+     * @return The mapped properties (in the order of the components/fields)
+     */
+    public @NotNull Property[] getProperties() {
+        return this.properties.clone();
+    }
+
+    private @Nullable Object decode(@NotNull ResultSet resultSet, int index) throws SQLException {
+        return this.properties[index].getCodec().decode(resultSet, this.columns[index]);
+    }
+
+}
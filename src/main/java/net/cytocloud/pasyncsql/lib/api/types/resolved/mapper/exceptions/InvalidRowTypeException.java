@@ -0,0 +1,21 @@
+package net.cytocloud.pasyncsql.lib.api.types.resolved.mapper.exceptions;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public class InvalidRowTypeException extends RuntimeException {
+
+    @Getter
+    private final @NotNull Class<?> type;
+
+    public InvalidRowTypeException(@NotNull Class<?> type, @NotNull String reason, @Nullable Throwable cause) {
+        super("The type \"" + type.getName() + "\" can't be mapped to the table: " + reason, cause);
+        this.type = type;
+    }
+
+    public InvalidRowTypeException(@NotNull Class<?> type, @NotNull String reason) {
+        this(type, reason, null);
+    }
+
+}
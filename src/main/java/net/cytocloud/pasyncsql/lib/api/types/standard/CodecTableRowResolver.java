@@ -0,0 +1,82 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.codec.PropertyCodec;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A resolver which converts every property with its {@link Property#getCodec() codec} (by the index of the column). No
+ * code is needed for the default types, own types can be added with {@link Property#codec}
+ */
+public class CodecTableRowResolver extends TableRowResolver {
+
+    private final @NotNull Map<String, Property> properties = new ConcurrentHashMap<>(); // by their lower case name (used by the name based methods)
+
+    public CodecTableRowResolver() {
+    }
+
+    /**
+     * @param properties The properties which can be resolved by their name (the cache binds the properties of its table)
+     */
+    public CodecTableRowResolver(@NotNull Property... properties) {
+        bind(properties);
+    }
+
+    @Override
+    public void bind(@NotNull Property... properties) {
+        for(Property property : properties)
+            this.properties.put(property.getName().toLowerCase(Locale.ROOT), property);
+    }
+
+    @Override
+    public @Nullable Object decode(@NotNull Property property, int column, @NotNull ResultSet resultSet) throws SQLException {
+        return property.getCodec().decode(resultSet, column);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NotNull String encode(@NotNull Property property, @NotNull Object object) {
+        return ((PropertyCodec<Object>) property.getCodec()).encode(object);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public @NotNull Object toParameter(@NotNull Property property, @NotNull Object object) {
+        return ((PropertyCodec<Object>) property.getCodec()).toParameter(object);
+    }
+
+    /**
+     * Resolve the value with the codec of the bound property (the column is looked up by the name)
+     * @return The value or null when the column is sql NULL
+     * @throws IllegalArgumentException When no property with the name is bound
+     */
+    @Override
+    public @Nullable Object resolve(@NotNull String property, @NotNull ResultSet resultSet) throws SQLException {
+        return decode(propertyOf(property), resultSet.findColumn(property), resultSet);
+    }
+
+    /**
+     * Encode the value with the codec of the bound property
+     * @throws IllegalArgumentException When no property with the name is bound
+     */
+    @Override
+    public @NotNull String encode(@NotNull String property, @NotNull Object object) {
+        return encode(propertyOf(property), object);
+    }
+
+    private @NotNull Property propertyOf(@NotNull String name) {
+        final @Nullable Property property = this.properties.get(name.toLowerCase(Locale.ROOT));
+
+        if(property == null)
+            throw new IllegalArgumentException("The property \"" + name + "\" isn't bound to the resolver (the cache binds the properties of its table)");
+
+        return property;
+    }
+
+}
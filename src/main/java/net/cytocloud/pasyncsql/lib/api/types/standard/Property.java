@@ -1,6 +1,8 @@
 package net.cytocloud.pasyncsql.lib.api.types.standard;
 
 import lombok.Getter;
+import net.cytocloud.pasyncsql.lib.api.types.standard.codec.PropertyCodec;
+import net.cytocloud.pasyncsql.lib.api.types.standard.codec.PropertyCodecs;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
@@ -10,9 +12,12 @@ import java.util.Arrays;
 public class Property {
 
     private boolean primary = false;
+    private boolean indexed = false; // has an own index in the sql
+    private boolean unique = false;
     private final @NotNull String name;
     private final @NotNull Type type;
     private final int maxLength;
+    private @NotNull PropertyCodec<?> codec; // used by the CodecTableRowResolver
 
     public Property(@NotNull String name, @NotNull Type type) {
         this(name, type, -1);
@@ -22,6 +27,7 @@ public class Property {
         this.name = name;
         this.type = type;
         this.maxLength = maxLength;
+        this.codec = PropertyCodecs.of(type);
     }
 
     @Override
@@ -34,6 +40,35 @@ public class Property {
         return this;
     }
 
+    /**
+     * Create an index for this property (e.g. for lookups by another property than the primary key, TEXT needs a VARCHAR instead)
+     * @return This property
+     */
+    public @NotNull Property index() {
+        this.indexed = true;
+        return this;
+    }
+
+    /**
+     * Create a unique index for this property (no value can be used twice)
+     * @return This property
+     */
+    public @NotNull Property unique() {
+        this.indexed = true;
+        this.unique = true;
+        return this;
+    }
+
+    /**
+     * Replace the built-in codec of the type (e.g. to store an own object in a VARCHAR column)
+     * @param codec The codec
+     * @return This property
+     */
+    public @NotNull Property codec(@NotNull PropertyCodec<?> codec) {
+        this.codec = codec;
+        return this;
+    }
+
     public enum Type {
         VARCHAR,
         INT,
@@ -0,0 +1,77 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * A secondary index of a table (created at the registration when it is missing)
+ * @param name The name of the index in the sql
+ * @param unique Is the index unique
+ * @param properties The indexed properties (in their order in the index)
+ */
+public record TableIndex(@NotNull String name, boolean unique, @NotNull Property[] properties) {
+
+    private static final int MAX_NAME_LENGTH = 64; // the maximum length of an identifier in MySQL
+
+    /**
+     * @throws IllegalArgumentException When a property is TEXT (MySQL can't index it without a prefix length, use a VARCHAR instead)
+     */
+    public TableIndex {
+        for(Property property : properties) {
+            if(property.getType() == Property.Type.TEXT)
+                throw new IllegalArgumentException("The property \"" + property.getName() + "\" of the index \"" + name + "\" is TEXT and can't be indexed (use a VARCHAR instead)");
+        }
+    }
+
+    /**
+     * Create an index with a generated name (idx_/uq_ + the names of the properties). Names which are too long for
+     * MySQL are cut and end with a hash of the full name, so they stay unique
+     * @param unique Is the index unique
+     * @param properties The indexed properties
+     * @return The index
+     */
+    public static @NotNull TableIndex of(boolean unique, @NotNull Property... properties) {
+        String name = Arrays.stream(properties).map(Property::getName).collect(Collectors.joining("_", unique ? "uq_" : "idx_", ""));
+
+        if(name.length() > MAX_NAME_LENGTH) {
+            final CRC32 crc = new CRC32();
+            crc.update(name.getBytes(StandardCharsets.UTF_8));
+
+            final String hash = String.format("_%08x", crc.getValue());
+            name = name.substring(0, MAX_NAME_LENGTH - hash.length()) + hash;
+        }
+
+        return new TableIndex(name, unique, properties.clone());
+    }
+
+    /**
+     * @return The properties in the sql format (`property1`, `property2`, ...)
+     */
+    public @NotNull String getFormattedProperties() {
+        return Arrays.stream(this.properties).map(property -> "`" + property.getName() + "`").collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Check if an existing index of the sql can be used instead of this index
+     * @param columns The columns of the existing index (in their order)
+     * @param unique Is the existing index unique
+     * @return true when the columns are the same (and the existing index is unique when this index is unique)
+     */
+    public boolean isCoveredBy(@NotNull List<String> columns, boolean unique) {
+        if(columns.size() != this.properties.length || (this.unique && !unique))
+            return false;
+
+        for(int i = 0; i < this.properties.length; i++) {
+            if(!this.properties[i].getName().equalsIgnoreCase(columns.get(i)))
+                return false;
+        }
+
+        return true;
+    }
+
+}
@@ -2,6 +2,7 @@ package net.cytocloud.pasyncsql.lib.api.types.standard;
 
 import net.cytocloud.pasyncsql.lib.worker.exceptions.InternalDatabaseError;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -28,24 +29,85 @@ public abstract class TableRowResolver {
      */
     public abstract @NotNull String encode(@NotNull String property, @NotNull Object object);
 
+    /**
+     * Called by the cache when its table is bound (e.g. to look up the properties by their name)
+     * @param properties The properties of the table
+     */
+    public void bind(@NotNull Property... properties) {
+    }
+
+    /**
+     * Resolve the value of a property by the index of its column. Override it to skip the lookup by the name
+     * (the default calls {@link #resolve(String, ResultSet)})
+     * @param property The property which needs to be resolved
+     * @param column The index of the column (starting with 1)
+     * @param resultSet The result set which points to the row
+     * @return An object which represents the property value
+     * @throws SQLException Could occur in the result set
+     */
+    public @Nullable Object decode(@NotNull Property property, int column, @NotNull ResultSet resultSet) throws SQLException {
+        return resolve(property.getName(), resultSet);
+    }
+
+    /**
+     * Get the sql format of a property value. Override it to skip the dispatch by the name (the default calls
+     * {@link #encode(String, Object)})
+     * @param property The property
+     * @param object The resolved object
+     * @return The formatted value
+     */
+    public @NotNull String encode(@NotNull Property property, @NotNull Object object) {
+        return encode(property.getName(), object);
+    }
+
+    /**
+     * Convert a property value for a parameter of a prepared statement. It is bound by the type of the property (a
+     * number for INT, SMALLINT and BIGINT, the string of the value for VARCHAR and TEXT). Override it when the resolved
+     * objects don't match that (the default binds the object itself)
+     * @param property The property
+     * @param object The resolved object
+     * @return The value which is bound
+     */
+    public @NotNull Object toParameter(@NotNull Property property, @NotNull Object object) {
+        return object;
+    }
+
+    /**
+     * Move to the next row of the result set and resolve its objects
+     * @param resultSet The result set
+     * @param properties The properties which need to be resolved (in the order of the columns, like SELECT * of the table)
+     * @return The resolved objects
+     * @throws InternalDatabaseError When the result set has no row left or the row couldn't be resolved
+     */
     public @NotNull Map<Property, Object> createObjects(@NotNull ResultSet resultSet, @NotNull Property... properties) {
         try {
-            resultSet.next();
+            if(!resultSet.next())
+                throw new InternalDatabaseError("The result set has no row left to convert");
 
+            return createObjectsOfRow(resultSet, properties);
+        }catch(SQLException e) {
+            throw new InternalDatabaseError("Couldn't convert the data row into a solid object state. Check the cache table row resolver.", e);
+        }
+    }
+
+    /**
+     * Resolve the objects of the current row (the result set is not moved)
+     * @param resultSet The result set which points to the row
+     * @param properties The properties which need to be resolved (in the order of the columns, like SELECT * of the table)
+     * @return The resolved objects
+     * @throws InternalDatabaseError When the row couldn't be resolved
+     */
+    public @NotNull Map<Property, Object> createObjectsOfRow(@NotNull ResultSet resultSet, @NotNull Property... properties) {
+        try {
             Map<Property, Object> map = new HashMap<>();
 
-            for(Property property : properties) {
-                map.put(property, resolve(property.getName(), resultSet));
+            for(int i = 0; i < properties.length; i++) {
+                map.put(properties[i], decode(properties[i], i + 1, resultSet));
             }
 
             return map;
         }catch(SQLException e) {
-            throw new InternalDatabaseError("Couldn't convert the data row into a solid object state. Check the cache table row resolver.") {
-                @Override
-                public synchronized Throwable getCause() {
-                    return e;
-                }
-            };
+            throw new InternalDatabaseError("Couldn't convert the data row into a solid object state. Check the cache table row resolver.", e);
         }
     }
 
@@ -5,12 +5,16 @@ import net.cytocloud.pasyncsql.lib.api.types.Table;
 import net.cytocloud.pasyncsql.lib.api.adapter.interpreter.exceptions.InvalidTableSchemeException;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 @Getter
 public class TableSchema extends Table {
 
     private final @NotNull Property[] properties;
+    private final @NotNull List<TableIndex> indexes = new ArrayList<>();
 
     public TableSchema(Property... properties) {
         super("none");
@@ -19,6 +23,55 @@ public class TableSchema extends Table {
         // Check if it's only one primary key property available
         if(Arrays.stream(this.properties).filter(Property::isPrimary).count() != 1)
             throw new InvalidTableSchemeException();
+
+        for(Property property : this.properties) {
+            if(property.isIndexed() && !property.isPrimary())
+                this.indexes.add(TableIndex.of(property.isUnique(), property));
+        }
+    }
+
+    /**
+     * Add an index over many properties
+     * @param properties The names of the properties (in their order in the index)
+     * @return This schema
+     * @throws IllegalArgumentException When a property isn't part of the schema or is TEXT
+     */
+    public @NotNull TableSchema index(@NotNull String... properties) {
+        this.indexes.add(TableIndex.of(false, propertiesByName(properties)));
+        return this;
+    }
+
+    /**
+     * Add a unique index over many properties (no combination of values can be used twice)
+     * @param properties The names of the properties (in their order in the index)
+     * @return This schema
+     * @throws IllegalArgumentException When a property isn't part of the schema or is TEXT
+     */
+    public @NotNull TableSchema uniqueIndex(@NotNull String... properties) {
+        this.indexes.add(TableIndex.of(true, propertiesByName(properties)));
+        return this;
+    }
+
+    /**
+     * @return All secondary indexes (of the properties and the composite ones)
+     */
+    public @NotNull List<TableIndex> getIndexes() {
+        return Collections.unmodifiableList(this.indexes);
+    }
+
+    private @NotNull Property[] propertiesByName(@NotNull String... names) {
+        if(names.length == 0)
+            throw new IllegalArgumentException("An index needs at least one property");
+
+        final Property[] result = new Property[names.length];
+
+        for(int i = 0; i < names.length; i++) {
+            final String name = names[i];
+            result[i] = Arrays.stream(this.properties).filter(property -> property.getName().equalsIgnoreCase(name)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("The property \"" + name + "\" isn't part of the schema"));
+        }
+
+        return result;
     }
 
     @Override
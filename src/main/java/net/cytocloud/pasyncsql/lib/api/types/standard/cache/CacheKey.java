@@ -0,0 +1,14 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The key of a cached data set in the cache index
+ * @param property The property which was used for selecting the data set
+ * @param value The value of the property
+ */
+public record CacheKey(@NotNull Property property, @NotNull String value) {
+
+
+}
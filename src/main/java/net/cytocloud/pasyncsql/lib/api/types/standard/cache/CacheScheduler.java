@@ -0,0 +1,42 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache;
+
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Runs the housekeeping of all caches (e.g. expiration). The housekeeping never waits for the database, uploads are queued as tasks
+ */
+@ApiStatus.Internal
+public class CacheScheduler {
+
+    private static final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "PowerfulSQL-Cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Run a task periodically
+     * @param task The task
+     * @param period The time between two runs
+     * @param timeUnit The unit of the period
+     * @return The scheduled future (can be used to cancel the task)
+     */
+    public static @NotNull ScheduledFuture<?> schedule(@NotNull Runnable task, long period, @NotNull TimeUnit timeUnit) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            }catch(RuntimeException e) { // an uncaught exception would cancel the task
+                Bukkit.getLogger().log(Level.SEVERE, "The cache housekeeping failed", e);
+            }
+        }, period, period, timeUnit);
+    }
+
+}
@@ -1,26 +1,44 @@
 package net.cytocloud.pasyncsql.lib.api.types.standard.cache;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.cytocloud.pasyncsql.lib.api.types.Cache;
 import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRow;
 import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowEntry;
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
 import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
 import net.cytocloud.pasyncsql.lib.api.types.standard.TableRowResolver;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.UnaryOperator;
 
+/**
+ * The values of one table row in a cache. All methods are thread safe, the values are changed atomically per data set
+ */
 @Getter
 public class CachedDataSet {
 
     private final @NotNull Property property;
     private final @NotNull String value;
     private final @NotNull Cache cache;
-    private final @NotNull Map<Property, Object> objects;
-    private final @NotNull Map<String, Object> internalStorage = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private @Nullable CompactRow row = null; // the values by the ordinal of their property (created on first use, the table of the cache can be bound later)
+
+    @Getter(AccessLevel.NONE)
+    private @Nullable Map<Property, Object> initialObjects; // the values until the row is created
+
+    @Getter(AccessLevel.NONE)
+    private @Nullable Map<String, Object> internalStorage = null; // created on first use
 
     private final long time;
+    private volatile long lastWrite; // when the data set was downloaded or changed the last time
+    private volatile long lastAccess; // when the data set was read from the cache the last time
+    private volatile boolean dirty = true; // true when the data set has changes which are not uploaded yet (a new data set isn't in the sql yet)
+    private long modifications = 0; // counts the changes, so an upload only cleans the data set when it wasn't changed in the meantime
 
     /**
      * @param cache The cache where the data set is from
@@ -29,10 +47,61 @@ public class CachedDataSet {
      */
     public CachedDataSet(@NotNull Property property, @NotNull String value, @NotNull Cache cache, @NotNull Map<Property, Object> objects, long time) {
         this.cache = cache;
-        this.objects = objects;
+        this.initialObjects = new HashMap<>(objects);
         this.time = time;
         this.property = property;
         this.value = value;
+        this.lastWrite = time;
+        this.lastAccess = time;
+    }
+
+    /**
+     * @return The row with the values (requires the lock of this data set)
+     * @throws IllegalArgumentException When a value of the constructor has a property which isn't part of the table
+     */
+    private @NotNull CompactRow row() {
+        if(this.row == null) {
+            final CompactRow row = new CompactRow(this.cache.getRowLayout());
+
+            if(this.initialObjects != null)
+                this.initialObjects.forEach((objectProperty, object) -> row.set(row.getLayout().ordinalOf(objectProperty), object));
+
+            this.row = row;
+            this.initialObjects = null;
+        }
+
+        return this.row;
+    }
+
+    /**
+     * @return A copy of all values by their property (properties without a value are mapped to null)
+     */
+    public synchronized @NotNull Map<Property, Object> getObjects() {
+        final CompactRow row = row();
+        final CompactRow.Layout layout = row.getLayout();
+        final Map<Property, Object> objects = new LinkedHashMap<>();
+
+        for(int ordinal = 0; ordinal < layout.size(); ordinal++)
+            objects.put(layout.propertyAt(ordinal), row.get(ordinal));
+
+        return Collections.unmodifiableMap(objects);
+    }
+
+    /**
+     * @return A storage for own information about this data set (not uploaded)
+     */
+    public synchronized @NotNull Map<String, Object> getInternalStorage() {
+        if(this.internalStorage == null)
+            this.internalStorage = Collections.synchronizedMap(new HashMap<>());
+
+        return this.internalStorage;
+    }
+
+    /**
+     * @return The key of this data set in the cache index
+     */
+    public @NotNull CacheKey getKey() {
+        return new CacheKey(this.property, this.value);
     }
 
     /**
@@ -40,19 +109,22 @@ public class CachedDataSet {
      * @param property The property
      * @throws NullPointerException When the table doesn't have the property
      */
-    public @Nullable Object get(@NotNull String property) {
-        return this.getObjects().get(this.getCache().getTable().getPropertyByName(property));
+    public synchronized @Nullable Object get(@NotNull String property) {
+        final @Nullable Property tableProperty = this.getCache().getTable().getPropertyByName(property);
+        return tableProperty == null ? null : get(tableProperty);
     }
 
     /**
      * Get the object for the entered property
      * @param property The property
      */
-    public @Nullable Object get(@NotNull Property property) {
-        if(!this.getObjects().containsKey(property))
+    public synchronized @Nullable Object get(@NotNull Property property) {
+        final CompactRow row = row();
+
+        if(!row.getLayout().contains(property))
             return null;
 
-        return this.getObjects().get(property);
+        return row.get(row.getLayout().ordinalOf(property));
     }
 
     /**
@@ -69,42 +141,140 @@ public class CachedDataSet {
      * Set the value of a property
      * @param property The property
      * @param value The value
+     * @throws IllegalArgumentException When the property isn't part of the table
+     */
+    public synchronized void set(@NotNull Property property, @NotNull Object value) {
+        final CompactRow row = row();
+        final int ordinal = row.getLayout().ordinalOf(property);
+        final @Nullable Object oldValue = row.get(ordinal);
+
+        row.set(ordinal, value);
+
+        this.lastWrite = System.currentTimeMillis();
+        this.dirty = true;
+        this.modifications++;
+        this.getCache().recordChange(this, property, oldValue, value);
+    }
+
+    /**
+     * Change the value of a property atomically (e.g. add an amount to a balance without losing changes of other threads)
+     * @param property The property
+     * @param function Receives the current value (or null) and returns the new value
+     * @return The new value
+     * @throws NullPointerException When the table doesn't have the property
+     */
+    public @NotNull Object compute(@NotNull String property, @NotNull UnaryOperator<Object> function) {
+        return this.compute(Objects.requireNonNull(this.getCache().getTable().getPropertyByName(property)), function);
+    }
+
+    /**
+     * Change the value of a property atomically (e.g. add an amount to a balance without losing changes of other threads)
+     * @param property The property
+     * @param function Receives the current value (or null) and returns the new value
+     * @return The new value
+     */
+    public synchronized @NotNull Object compute(@NotNull Property property, @NotNull UnaryOperator<Object> function) {
+        final Object newValue = Objects.requireNonNull(function.apply(get(property)), "The new value can't be null");
+
+        set(property, newValue);
+        return newValue;
+    }
+
+    /**
+     * Mark the data set as changed, so it gets uploaded with the next flush of the cache (e.g. after changing a value object directly)
+     */
+    public synchronized void markDirty() {
+        this.dirty = true;
+        this.modifications++;
+    }
+
+    /**
+     * Mark the data set as equal to the sql (e.g. after the download)
+     */
+    @ApiStatus.Internal
+    public void markClean() {
+        this.dirty = false;
+    }
+
+    /**
+     * Mark the data set as uploaded after the upload completed
+     * @param modifications The modification count when the uploaded row was created ({@link #getModifications()})
+     * @return false when the data set was changed in the meantime (it stays dirty)
+     */
+    @ApiStatus.Internal
+    public synchronized boolean markClean(long modifications) {
+        if(this.modifications != modifications)
+            return false;
+
+        this.dirty = false;
+        return true;
+    }
+
+    /**
+     * @return How often the data set was changed (used to detect changes during an upload)
      */
-    public void set(@NotNull Property property, @NotNull Object value) {
-        this.getObjects().remove(property);
-        this.getObjects().put(property, value);
+    @ApiStatus.Internal
+    public synchronized long getModifications() {
+        return this.modifications;
     }
 
     /**
-     * This is used to fill no existing property values of the table to a null object
+     * Mark the data set as read (used for the expiration after access)
      */
+    @ApiStatus.Internal
+    public void recordAccess() {
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * This was used to fill no existing property values of the table to a null object
+     * @deprecated Every property of the table has a value (null by default), there is nothing to fill
+     */
+    @Deprecated
     public void fillEmptyPropertyValues() {
-        for(Property property : this.getCache().getTable().resolvedTable().asInterpretedTable().getProperties()) {
-            if(this.getObjects().containsKey(property)) //skip all existing properties
-                continue;
+    }
+
+    /**
+     * Convert this cached data set into the values of a prepared statement (see {@link TableRowResolver#toParameter(Property, Object)})
+     * @return The values of all properties (in the order of the properties of the table)
+     */
+    public synchronized @NotNull TableRowValue[] toTableRowValues() {
+        final TableRowResolver resolver = getCache().getResolver();
+        final CompactRow row = row();
+        final CompactRow.Layout layout = row.getLayout();
+        final TableRowValue[] values = new TableRowValue[layout.size()];
 
-            this.getObjects().put(property, null);
+        for(int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            final Property property = layout.propertyAt(ordinal);
+            final @Nullable Object object = row.get(ordinal);
+
+            values[ordinal] = new TableRowValue(property, object == null ? null : resolver.toParameter(property, object));
         }
+
+        return values;
     }
 
     /**
      * Convert this cached data set into a table row
      * @return A new table row with the content
      */
-    public @NotNull TableRow toTableRow() {
+    public synchronized @NotNull TableRow toTableRow() {
         final TableRowResolver resolver = getCache().getResolver();
-        final List<TableRowEntry> entryList = new ArrayList<>();
+        final CompactRow row = row();
+        final CompactRow.Layout layout = row.getLayout();
+        final List<TableRowEntry> entryList = new ArrayList<>(layout.size());
 
-        fillEmptyPropertyValues(); // make sure every property has an object
+        for(int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            final Property property = layout.propertyAt(ordinal);
+            final @Nullable Object object = row.get(ordinal);
 
-        getObjects().forEach((property, object) -> {
             if(object == null) {
                 entryList.add(new TableRowEntry(property, "null"));
-                return;
+                continue;
             }
 
-            entryList.add(new TableRowEntry(property, resolver.encode(property.getName(), object)));
-        });
+            entryList.add(new TableRowEntry(property, resolver.encode(property, object)));
+        }
 
         return TableRow.from(this.getCache().getTable()).addAll(entryList).build();
     }
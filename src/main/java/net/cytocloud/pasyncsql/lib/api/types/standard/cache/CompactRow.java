@@ -0,0 +1,174 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The values of one row stored by the ordinal of their property. INT/SMALLINT/BIGINT values are stored in a long[] (without
+ * boxing), all other values in an Object[]. Not thread safe (guarded by its {@link CachedDataSet})
+ */
+@ApiStatus.Internal
+public final class CompactRow {
+
+    private final @NotNull Layout layout;
+    private final @Nullable long[] primitives;
+    private final @Nullable long[] nullPrimitives; // bit set: the primitive slot has no value
+    private final @NotNull Object[] objects;
+    private @Nullable Object[] otherPrimitives; // created when a primitive property gets a value of another type (e.g. a custom object)
+
+    CompactRow(@NotNull Layout layout) {
+        this.layout = layout;
+        this.objects = layout.objectCount == 0 ? Layout.NO_OBJECTS : new Object[layout.objectCount];
+
+        if(layout.primitiveCount == 0) {
+            this.primitives = null;
+            this.nullPrimitives = null;
+        }else {
+            this.primitives = new long[layout.primitiveCount];
+            this.nullPrimitives = new long[(layout.primitiveCount + 63) >>> 6];
+            Arrays.fill(this.nullPrimitives, -1L);
+        }
+    }
+
+    @NotNull Layout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * @param ordinal The ordinal of the property
+     * @return The value (INT/SMALLINT as Integer, BIGINT as Long) or null
+     */
+    @Nullable Object get(int ordinal) {
+        final int slot = this.layout.slots[ordinal];
+
+        if(!this.layout.primitive[ordinal])
+            return this.objects[slot];
+
+        if(this.otherPrimitives != null && this.otherPrimitives[slot] != null)
+            return this.otherPrimitives[slot];
+
+        if((this.nullPrimitives[slot >>> 6] & (1L << slot)) != 0)
+            return null;
+
+        final long value = this.primitives[slot];
+        return this.layout.properties[ordinal].getType() == Property.Type.BIGINT ? (Object) value : (Object) (int) value;
+    }
+
+    /**
+     * @param ordinal The ordinal of the property
+     * @param value The new value (or null)
+     */
+    void set(int ordinal, @Nullable Object value) {
+        final int slot = this.layout.slots[ordinal];
+
+        if(!this.layout.primitive[ordinal]) {
+            this.objects[slot] = value;
+            return;
+        }
+
+        if(this.otherPrimitives != null)
+            this.otherPrimitives[slot] = null;
+
+        if(value == null) {
+            this.nullPrimitives[slot >>> 6] |= 1L << slot;
+            return;
+        }
+
+        final boolean bigint = this.layout.properties[ordinal].getType() == Property.Type.BIGINT;
+
+        if(bigint ? value instanceof Long : value instanceof Integer) {
+            this.primitives[slot] = ((Number) value).longValue();
+            this.nullPrimitives[slot >>> 6] &= ~(1L << slot);
+            return;
+        }
+
+        // Keep the type of the value the resolver returned
+        if(this.otherPrimitives == null)
+            this.otherPrimitives = new Object[this.layout.primitiveCount];
+
+        this.otherPrimitives[slot] = value;
+    }
+
+    /**
+     * The slots of the properties of a table (created once per cache)
+     */
+    @ApiStatus.Internal
+    public static final class Layout {
+
+        private static final Object[] NO_OBJECTS = new Object[0];
+
+        private final @NotNull Property[] properties;
+        private final @NotNull Map<Property, Integer> ordinals; // a property can be shared by many schemas, so it doesn't know its position
+        private final @NotNull int[] slots;
+        private final @NotNull boolean[] primitive;
+        private final int primitiveCount;
+        private final int objectCount;
+
+        /**
+         * @param properties The properties of the table (in the order of the table schema)
+         * @throws IllegalArgumentException When a property is used twice
+         */
+        public Layout(@NotNull Property[] properties) {
+            this.properties = properties.clone();
+            this.ordinals = new IdentityHashMap<>(properties.length * 2);
+            this.slots = new int[properties.length];
+            this.primitive = new boolean[properties.length];
+
+            int primitiveCount = 0;
+            int objectCount = 0;
+
+            for(int i = 0; i < properties.length; i++) {
+                if(this.ordinals.put(properties[i], i) != null)
+                    throw new IllegalArgumentException("The property \"" + properties[i].getName() + "\" is used twice");
+
+                this.primitive[i] = switch(properties[i].getType()) {
+                    case INT, SMALLINT, BIGINT -> true;
+                    case VARCHAR, TEXT -> false;
+                };
+
+                this.slots[i] = this.primitive[i] ? primitiveCount++ : objectCount++;
+            }
+
+            this.primitiveCount = primitiveCount;
+            this.objectCount = objectCount;
+        }
+
+        /**
+         * @param property A property of the table
+         * @return The ordinal of the property
+         * @throws IllegalArgumentException When the property isn't part of the table
+         */
+        public int ordinalOf(@NotNull Property property) {
+            final @Nullable Integer ordinal = this.ordinals.get(property);
+
+            if(ordinal == null)
+                throw new IllegalArgumentException("The property \"" + property.getName() + "\" isn't part of the table");
+
+            return ordinal;
+        }
+
+        /**
+         * @param property The property
+         * @return true when the property is part of the table
+         */
+        public boolean contains(@NotNull Property property) {
+            return this.ordinals.containsKey(property);
+        }
+
+        int size() {
+            return this.properties.length;
+        }
+
+        @NotNull Property propertyAt(int ordinal) {
+            return this.properties[ordinal];
+        }
+
+    }
+
+}
@@ -0,0 +1,173 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel with a resolution of one second. Scheduling, rescheduling and cancelling are O(1), advancing
+ * only touches the timers of the passed buckets (instead of scanning all entries). Timers in the upper wheels are moved
+ * down (cascaded) when their bucket is reached
+ * @param <K> The key of the timers
+ */
+public class TimerWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int BUCKETS = 1 << BITS; // 64 buckets per wheel
+    private static final int MASK = BUCKETS - 1;
+    private static final int LEVELS = 4; // 64 s, ~68 min, ~3 days, ~194 days
+    private static final long TICK = 1000; // ms
+
+    private final @NotNull Node<K>[][] wheels;
+    private final @NotNull Map<K, Node<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long now) {
+        this.currentTick = now / TICK;
+        this.wheels = new Node[LEVELS][BUCKETS];
+
+        for(int level = 0; level < LEVELS; level++) {
+            for(int bucket = 0; bucket < BUCKETS; bucket++)
+                this.wheels[level][bucket] = Node.sentinel();
+        }
+    }
+
+    /**
+     * Schedule (or reschedule) the timer of a key
+     * @param key The key
+     * @param expiresAt When the timer expires (in ms)
+     */
+    public void schedule(@NotNull K key, long expiresAt) {
+        Node<K> node = this.timers.get(key);
+
+        if(node == null) {
+            node = new Node<>(key);
+            this.timers.put(key, node);
+        }else {
+            node.unlink();
+        }
+
+        // A timer in the past expires with the next tick
+        node.expireTick = Math.max(expiresAt / TICK, this.currentTick + 1);
+        place(node);
+    }
+
+    /**
+     * Cancel the timer of a key
+     * @param key The key
+     */
+    public void cancel(@NotNull K key) {
+        final @Nullable Node<K> node = this.timers.remove(key);
+
+        if(node != null)
+            node.unlink();
+    }
+
+    /**
+     * Advance the wheel to the entered time and expire all passed timers
+     * @param now The current time (in ms)
+     * @param expired Receives the keys of the expired timers (they are cancelled before)
+     */
+    public void advance(long now, @NotNull Consumer<K> expired) {
+        final long targetTick = now / TICK;
+
+        while(this.currentTick < targetTick) {
+            this.currentTick++;
+
+            // Move the timers of the upper wheels down when their bucket is reached (highest wheel first)
+            for(int level = LEVELS - 1; level > 0; level--) {
+                if((this.currentTick & ((1L << (BITS * level)) - 1)) == 0)
+                    cascade(this.wheels[level][(int) ((this.currentTick >>> (BITS * level)) & MASK)]);
+            }
+
+            final Node<K> sentinel = this.wheels[0][(int) (this.currentTick & MASK)];
+
+            while(sentinel.next != sentinel) {
+                final Node<K> node = sentinel.next;
+
+                node.unlink();
+                this.timers.remove(node.key);
+                expired.accept(node.key);
+            }
+        }
+    }
+
+    /**
+     * Remove all timers
+     */
+    public void clear() {
+        this.timers.values().forEach(Node::unlink);
+        this.timers.clear();
+    }
+
+    /**
+     * @return How many timers are scheduled
+     */
+    public int size() {
+        return this.timers.size();
+    }
+
+    private void cascade(@NotNull Node<K> sentinel) {
+        Node<K> node = sentinel.next;
+
+        while(node != sentinel) {
+            final Node<K> next = node.next;
+
+            node.unlink();
+            place(node);
+
+            node = next;
+        }
+    }
+
+    private void place(@NotNull Node<K> node) {
+        final long delta = node.expireTick - this.currentTick;
+
+        for(int level = 0; level < LEVELS; level++) {
+            if(delta < (1L << (BITS * (level + 1)))) {
+                this.wheels[level][(int) ((node.expireTick >>> (BITS * level)) & MASK)].append(node);
+                return;
+            }
+        }
+
+        // Too far in the future -> park it in the last bucket of the highest wheel (it is placed again on the cascade)
+        final int highest = LEVELS - 1;
+        this.wheels[highest][(int) (((this.currentTick >>> (BITS * highest)) + MASK) & MASK)].append(node);
+    }
+
+    private static class Node<K> {
+
+        private final @Nullable K key;
+        private long expireTick;
+        private Node<K> previous = this;
+        private Node<K> next = this;
+
+        private Node(@Nullable K key) {
+            this.key = key;
+        }
+
+        private static <K> @NotNull Node<K> sentinel() {
+            return new Node<>(null);
+        }
+
+        private void append(@NotNull Node<K> node) {
+            node.previous = this.previous;
+            node.next = this;
+            this.previous.next = node;
+            this.previous = node;
+        }
+
+        private void unlink() {
+            this.previous.next = this.next;
+            this.next.previous = this.previous;
+            this.previous = this;
+            this.next = this;
+        }
+
+    }
+
+}
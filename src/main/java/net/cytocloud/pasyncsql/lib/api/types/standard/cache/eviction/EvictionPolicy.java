@@ -0,0 +1,45 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * How a full cache chooses the data set which gets removed
+ */
+public enum EvictionPolicy {
+
+    /**
+     * The oldest added data set
+     */
+    FIFO,
+
+    /**
+     * The data set which wasn't used for the longest time
+     */
+    LRU,
+
+    /**
+     * The data set which was used the least
+     */
+    LFU,
+
+    /**
+     * New data sets have to be used more often than the least recently used data set of the main area to stay
+     * (keeps frequently used data sets under scans and bursts of new keys)
+     */
+    W_TINY_LFU;
+
+    /**
+     * Create the evictor of this policy
+     * @param maxEntries How many entries the cache can store (-1 => infinite)
+     * @return The new evictor
+     */
+    public <K> @NotNull Evictor<K> create(int maxEntries) {
+        return switch(this) {
+            case FIFO -> new FifoEvictor<>();
+            case LRU -> new LruEvictor<>();
+            case LFU -> new LfuEvictor<>();
+            case W_TINY_LFU -> maxEntries <= 0 ? new LruEvictor<>() : new WindowTinyLfuEvictor<>(maxEntries); // nothing gets evicted from an infinite cache
+        };
+    }
+
+}
@@ -0,0 +1,41 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides which entry of a full cache gets removed. All operations are O(1)
+ * @param <K> The key of the entries
+ */
+public interface Evictor<K> {
+
+    /**
+     * A new entry was added to the cache
+     * @param key The key of the entry
+     */
+    void recordInsert(@NotNull K key);
+
+    /**
+     * An entry of the cache was read
+     * @param key The key of the entry
+     */
+    void recordAccess(@NotNull K key);
+
+    /**
+     * An entry was removed from the cache
+     * @param key The key of the entry
+     */
+    void recordRemove(@NotNull K key);
+
+    /**
+     * Choose the entry which gets removed to make space for a new entry. The cache needs to remove it afterwards ({@link #recordRemove(Object)})
+     * @return The key of the entry or null when no entries are recorded
+     */
+    @Nullable K selectVictim();
+
+    /**
+     * Forget all entries
+     */
+    void clear();
+
+}
@@ -0,0 +1,39 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+public class FifoEvictor<K> implements Evictor<K> {
+
+    private final @NotNull LinkedHashSet<K> keys = new LinkedHashSet<>(); // in insertion order
+
+    @Override
+    public void recordInsert(@NotNull K key) {
+        this.keys.add(key);
+    }
+
+    @Override
+    public void recordAccess(@NotNull K key) {
+        // the order doesn't change on access
+    }
+
+    @Override
+    public void recordRemove(@NotNull K key) {
+        this.keys.remove(key);
+    }
+
+    @Override
+    public @Nullable K selectVictim() {
+        final Iterator<K> iterator = this.keys.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    public void clear() {
+        this.keys.clear();
+    }
+
+}
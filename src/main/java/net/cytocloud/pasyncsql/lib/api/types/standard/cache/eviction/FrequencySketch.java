@@ -0,0 +1,86 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A count-min sketch with 4 bit counters which estimates how often a key was used. All counters are halved after
+ * a sample period, so old popularity fades out
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = { 0x97cb3127, 0xb3a6c4c9, 0x5f1ae3d5, 0x2c1b3c6d };
+
+    private final @NotNull byte[][] table;
+    private final int mask;
+    private final int samplePeriod;
+    private int samples = 0;
+
+    /**
+     * @param maxEntries How many entries the cache can store
+     */
+    public FrequencySketch(int maxEntries) {
+        final int width = Integer.highestOneBit(Math.max(16, maxEntries - 1) << 1); // next power of two
+
+        this.table = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.samplePeriod = 10 * width;
+    }
+
+    /**
+     * @param key The key
+     * @return The estimated frequency of the key (0 - 15)
+     */
+    public int frequency(@NotNull Object key) {
+        final int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+
+        for(int i = 0; i < DEPTH; i++)
+            frequency = Math.min(frequency, this.table[i][index(hash, i)]);
+
+        return frequency;
+    }
+
+    /**
+     * Count one use of the key
+     * @param key The key
+     */
+    public void increment(@NotNull Object key) {
+        final int hash = spread(key.hashCode());
+        boolean incremented = false;
+
+        for(int i = 0; i < DEPTH; i++) {
+            final int index = index(hash, i);
+
+            if(this.table[i][index] < MAX_COUNT) {
+                this.table[i][index]++;
+                incremented = true;
+            }
+        }
+
+        if(incremented && ++this.samples >= this.samplePeriod)
+            reset();
+    }
+
+    private void reset() {
+        for(byte[] row : this.table) {
+            for(int i = 0; i < row.length; i++)
+                row[i] >>= 1;
+        }
+
+        this.samples /= 2;
+    }
+
+    private int index(int hash, int depth) {
+        int h = (hash ^ SEEDS[depth]) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return h & this.mask;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+}
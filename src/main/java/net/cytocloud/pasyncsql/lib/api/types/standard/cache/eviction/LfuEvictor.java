@@ -0,0 +1,130 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Keeps the keys in a list of frequency nodes (ascending), so every operation is O(1).
+ * Keys with the same frequency are evicted in insertion order
+ */
+public class LfuEvictor<K> implements Evictor<K> {
+
+    private final @NotNull Map<K, FrequencyNode<K>> nodes = new HashMap<>();
+    private @Nullable FrequencyNode<K> head = null; // the lowest frequency
+
+    @Override
+    public void recordInsert(@NotNull K key) {
+        if(this.nodes.containsKey(key)) {
+            recordAccess(key);
+            return;
+        }
+
+        FrequencyNode<K> node = this.head;
+
+        if(node == null || node.frequency != 1) {
+            node = new FrequencyNode<>(1);
+            link(null, node);
+        }
+
+        node.keys.add(key);
+        this.nodes.put(key, node);
+    }
+
+    @Override
+    public void recordAccess(@NotNull K key) {
+        final @Nullable FrequencyNode<K> node = this.nodes.get(key);
+
+        if(node == null)
+            return;
+
+        FrequencyNode<K> next = node.next;
+
+        if(next == null || next.frequency != node.frequency + 1) {
+            next = new FrequencyNode<>(node.frequency + 1);
+            link(node, next);
+        }
+
+        next.keys.add(key);
+        this.nodes.put(key, next);
+
+        node.keys.remove(key);
+        if(node.keys.isEmpty())
+            unlink(node);
+    }
+
+    @Override
+    public void recordRemove(@NotNull K key) {
+        final @Nullable FrequencyNode<K> node = this.nodes.remove(key);
+
+        if(node == null)
+            return;
+
+        node.keys.remove(key);
+        if(node.keys.isEmpty())
+            unlink(node);
+    }
+
+    @Override
+    public @Nullable K selectVictim() {
+        if(this.head == null)
+            return null;
+
+        final Iterator<K> iterator = this.head.keys.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    public void clear() {
+        this.nodes.clear();
+        this.head = null;
+    }
+
+    /**
+     * Insert a node after another node
+     * @param previous The node before (null => insert as head)
+     * @param node The new node
+     */
+    private void link(@Nullable FrequencyNode<K> previous, @NotNull FrequencyNode<K> node) {
+        node.previous = previous;
+        node.next = previous == null ? this.head : previous.next;
+
+        if(node.next != null)
+            node.next.previous = node;
+
+        if(previous == null) {
+            this.head = node;
+        }else {
+            previous.next = node;
+        }
+    }
+
+    private void unlink(@NotNull FrequencyNode<K> node) {
+        if(node.previous == null) {
+            this.head = node.next;
+        }else {
+            node.previous.next = node.next;
+        }
+
+        if(node.next != null)
+            node.next.previous = node.previous;
+    }
+
+    private static class FrequencyNode<K> {
+
+        private final int frequency;
+        private final @NotNull LinkedHashSet<K> keys = new LinkedHashSet<>();
+        private @Nullable FrequencyNode<K> previous;
+        private @Nullable FrequencyNode<K> next;
+
+        private FrequencyNode(int frequency) {
+            this.frequency = frequency;
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+public class LruEvictor<K> implements Evictor<K> {
+
+    private final @NotNull LinkedHashMap<K, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true); // in access order
+
+    @Override
+    public void recordInsert(@NotNull K key) {
+        this.keys.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void recordAccess(@NotNull K key) {
+        this.keys.get(key); // moves the key to the end
+    }
+
+    @Override
+    public void recordRemove(@NotNull K key) {
+        this.keys.remove(key);
+    }
+
+    @Override
+    public @Nullable K selectVictim() {
+        final Iterator<K> iterator = this.keys.keySet().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    public void clear() {
+        this.keys.clear();
+    }
+
+}
@@ -0,0 +1,115 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * W-TinyLFU: New keys enter a small LRU window (1% of the cache). A key which leaves the window only gets into the
+ * main area when it was used more often (estimated by a {@link FrequencySketch}) than the key the main area would evict.
+ * The main area is a segmented LRU (probation 20%, protected 80%), keys are protected after their second use
+ */
+public class WindowTinyLfuEvictor<K> implements Evictor<K> {
+
+    private final @NotNull FrequencySketch sketch;
+    private final int windowSize;
+    private final int protectedSize;
+
+    // All in access order (the first key is the least recently used one)
+    private final @NotNull LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final @NotNull LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final @NotNull LinkedHashMap<K, Boolean> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxEntries How many entries the cache can store
+     */
+    public WindowTinyLfuEvictor(int maxEntries) {
+        this.sketch = new FrequencySketch(maxEntries);
+        this.windowSize = Math.max(1, maxEntries / 100);
+        this.protectedSize = (int) ((maxEntries - this.windowSize) * 0.8);
+    }
+
+    @Override
+    public void recordInsert(@NotNull K key) {
+        this.sketch.increment(key);
+        this.window.put(key, Boolean.TRUE);
+
+        // The cache isn't full yet -> the window overflow moves into the main area without a competition
+        if(this.window.size() > this.windowSize)
+            this.probation.put(removeFirst(this.window), Boolean.TRUE);
+    }
+
+    @Override
+    public void recordAccess(@NotNull K key) {
+        this.sketch.increment(key);
+
+        if(this.window.get(key) != null)
+            return;
+
+        if(this.protectedArea.get(key) != null)
+            return;
+
+        if(this.probation.remove(key) != null) {
+            this.protectedArea.put(key, Boolean.TRUE);
+
+            // Too many protected keys -> the least recently used one gets another chance in probation
+            if(this.protectedArea.size() > this.protectedSize)
+                this.probation.put(removeFirst(this.protectedArea), Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void recordRemove(@NotNull K key) {
+        if(this.window.remove(key) == null && this.probation.remove(key) == null)
+            this.protectedArea.remove(key);
+    }
+
+    @Override
+    public @Nullable K selectVictim() {
+        @Nullable K mainVictim = first(this.probation);
+
+        if(mainVictim == null)
+            mainVictim = first(this.protectedArea);
+
+        // The next insert doesn't overflow the window -> the main area makes space
+        if(this.window.size() < this.windowSize)
+            return mainVictim != null ? mainVictim : first(this.window);
+
+        final @Nullable K candidate = first(this.window);
+
+        if(candidate == null || mainVictim == null)
+            return candidate != null ? candidate : mainVictim;
+
+        // The candidate leaving the window competes with the main victim
+        if(this.sketch.frequency(candidate) > this.sketch.frequency(mainVictim)) {
+            this.window.remove(candidate);
+            this.probation.put(candidate, Boolean.TRUE);
+            return mainVictim;
+        }
+
+        return candidate;
+    }
+
+    @Override
+    public void clear() {
+        this.window.clear();
+        this.probation.clear();
+        this.protectedArea.clear();
+    }
+
+    private @Nullable K first(@NotNull LinkedHashMap<K, Boolean> area) {
+        final Iterator<K> iterator = area.keySet().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private @NotNull K removeFirst(@NotNull LinkedHashMap<K, Boolean> area) {
+        final Iterator<K> iterator = area.keySet().iterator();
+        final K key = iterator.next();
+
+        iterator.remove();
+        return key;
+    }
+
+}
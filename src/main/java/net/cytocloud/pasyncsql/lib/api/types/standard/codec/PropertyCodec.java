@@ -0,0 +1,41 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.codec;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converts the value of one property between the sql and java. The codec of a property is resolved once and is invoked
+ * with the index of the column (no lookup by the name of the property)
+ * @param <T> The java type of the value
+ */
+public interface PropertyCodec<T> {
+
+    /**
+     * Read the value of the current row
+     * @param resultSet The result set which points to the row
+     * @param column The index of the column (starting with 1)
+     * @return The value or null when the column is sql NULL
+     * @throws SQLException Could occur in the result set
+     */
+    @Nullable T decode(@NotNull ResultSet resultSet, int column) throws SQLException;
+
+    /**
+     * Format the value for a sql statement (used for inserting)
+     * @param value The value
+     * @return The sql formatted value
+     */
+    @NotNull String encode(@NotNull T value);
+
+    /**
+     * Convert the value for a parameter of a prepared statement (bound by the type of the property, used for uploading)
+     * @param value The value
+     * @return The value which is bound (the value itself by default)
+     */
+    default @NotNull Object toParameter(@NotNull T value) {
+        return value;
+    }
+
+}
@@ -0,0 +1,82 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.codec;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The built-in codecs of the property types
+ */
+public final class PropertyCodecs {
+
+    /**
+     * VARCHAR and TEXT as {@link String} (quoted and escaped on encoding)
+     */
+    public static final @NotNull PropertyCodec<String> STRING = new PropertyCodec<>() {
+
+        @Override
+        public @Nullable String decode(@NotNull ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getString(column);
+        }
+
+        @Override
+        public @NotNull String encode(@NotNull String value) {
+            return "'" + value.replace("\\", "\\\\").replace("'", "''") + "'";
+        }
+
+    };
+
+    /**
+     * INT and SMALLINT as {@link Integer}
+     */
+    public static final @NotNull PropertyCodec<Integer> INTEGER = new PropertyCodec<>() {
+
+        @Override
+        public @Nullable Integer decode(@NotNull ResultSet resultSet, int column) throws SQLException {
+            final int value = resultSet.getInt(column);
+            return resultSet.wasNull() ? null : value;
+        }
+
+        @Override
+        public @NotNull String encode(@NotNull Integer value) {
+            return Integer.toString(value);
+        }
+
+    };
+
+    /**
+     * BIGINT as {@link Long}
+     */
+    public static final @NotNull PropertyCodec<Long> LONG = new PropertyCodec<>() {
+
+        @Override
+        public @Nullable Long decode(@NotNull ResultSet resultSet, int column) throws SQLException {
+            final long value = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : value;
+        }
+
+        @Override
+        public @NotNull String encode(@NotNull Long value) {
+            return Long.toString(value);
+        }
+
+    };
+
+    private PropertyCodecs() {}
+
+    /**
+     * @param type The type of the property
+     * @return The built-in codec of the type
+     */
+    public static @NotNull PropertyCodec<?> of(@NotNull Property.Type type) {
+        return switch(type) {
+            case VARCHAR, TEXT -> STRING;
+            case INT, SMALLINT -> INTEGER;
+            case BIGINT -> LONG;
+        };
+    }
+
+}
@@ -1,16 +1,28 @@
 package net.cytocloud.pasyncsql.lib.worker;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
 import net.cytocloud.pasyncsql.lib.worker.exceptions.DatabaseNotConnectedException;
+import net.cytocloud.pasyncsql.lib.worker.helper.BatchExecutor;
+import net.cytocloud.pasyncsql.lib.worker.helper.DetachedQueryTask;
+import net.cytocloud.pasyncsql.lib.worker.helper.DetachedResultSet;
+import net.cytocloud.pasyncsql.lib.worker.helper.ResultStreamPublisher;
+import net.cytocloud.pasyncsql.lib.worker.helper.StatementBinder;
 import net.cytocloud.pasyncsql.lib.worker.helper.Task;
 import org.bukkit.Bukkit;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Getter
@@ -25,14 +37,19 @@ public class ConnectionBridge {
     @Setter
     private long lastQuery = -1; // When got the last query executed
 
-    @Setter
     private volatile boolean isConnected = false; //Is the sql connected (update automatically when connected)
 
     @Setter
-    private volatile Connection connection;
+    private volatile boolean rowAliasSupported = false; // Does the database support INSERT ... AS `new` ON DUPLICATE KEY UPDATE (MySQL 8.0.19+, detected on connect)
+
+    @Getter(AccessLevel.NONE)
+    private volatile @NotNull CompletableFuture<ConnectionBridge> connectionFuture = new CompletableFuture<>(); // completed while connected
+
+    private final @NotNull ConnectionPool pool;
 
     public ConnectionBridge(@NotNull ConnectionInformation information) {
         this.information = information;
+        this.pool = new ConnectionPool(this);
     }
 
     /**
@@ -41,13 +58,12 @@ public class ConnectionBridge {
      * @return The entered task
      * @throws DatabaseNotConnectedException When the database is not connected
      */
-    public @NotNull Task executeConnectionTask(@NotNull Task task) {
+    public <T extends Task> @NotNull T executeConnectionTask(@NotNull T task) {
         if(!isConnected())
             throw new DatabaseNotConnectedException(this);
 
-        synchronized (sqlTasks) {
-            this.sqlTasks.add(task);
-        }
+        this.sqlTasks.add(task);
+        SQLWorker.wakeUp(this); // the worker is parked while no tasks are queued
 
         return task;
     }
@@ -63,9 +79,9 @@ public class ConnectionBridge {
             throw new DatabaseNotConnectedException(this);
 
         return executeConnectionTask(Task.create(connection -> {
-            Statement statement = connection.createStatement();
-            statement.executeUpdate(query);
-            statement.closeOnCompletion();
+            try(Statement statement = connection.createStatement()) {
+                statement.executeUpdate(query);
+            }
         }));
     }
 
@@ -93,7 +109,170 @@ public class ConnectionBridge {
     }
 
     /**
-     * Reset the connection (make connected = false, set the attempts to 0, set the last query which got executed to -1)
+     * Execute many update requests in one task. They are sent in batches and committed together (nothing is committed when one fails)
+     * @param queries The sql queries
+     * @param batchSize How many queries are sent at once
+     * @return The created task with your queries
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    public @NotNull Task executeSQLBatch(@NotNull List<String> queries, int batchSize) {
+        if(!isConnected())
+            throw new DatabaseNotConnectedException(this);
+
+        if(batchSize <= 0)
+            throw new IllegalArgumentException("The batch size needs to be positive");
+
+        return executeConnectionTask(Task.create(connection -> {
+            try(Statement statement = connection.createStatement()) {
+                BatchExecutor.execute(connection, statement, queries, batchSize);
+            }
+        }));
+    }
+
+    /**
+     * Execute a update request with a cached prepared statement
+     * @param query The sql query with ? as parameters
+     * @param values The values of the parameters (bound by the type of their property)
+     * @return The created task with your query
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    public @NotNull Task executePreparedSQLUpdate(@NotNull String query, @NotNull TableRowValue... values) {
+        if(!isConnected())
+            throw new DatabaseNotConnectedException(this);
+
+        return executeConnectionTask(Task.create(connection -> {
+            final PreparedStatement statement = this.pool.prepare(connection, query);
+
+            StatementBinder.bindAll(statement, values);
+            statement.executeUpdate();
+        }));
+    }
+
+    /**
+     * Execute a update request for many rows with one cached prepared statement. Every row is bound and added to the
+     * batch, the batch is sent every batchSize rows and all rows are committed together (nothing is committed when one fails)
+     * @param query The sql query with ? as parameters
+     * @param rows The values of the parameters of every row (bound by the type of their property)
+     * @param batchSize How many rows are sent at once
+     * @return The created task with your query
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    public @NotNull Task executePreparedSQLBatch(@NotNull String query, @NotNull List<TableRowValue[]> rows, int batchSize) {
+        if(!isConnected())
+            throw new DatabaseNotConnectedException(this);
+
+        if(batchSize <= 0)
+            throw new IllegalArgumentException("The batch size needs to be positive");
+
+        return executeConnectionTask(Task.create(connection -> {
+            final PreparedStatement statement = this.pool.prepare(connection, query);
+            BatchExecutor.execute(connection, statement, rows, batchSize);
+        }));
+    }
+
+    /**
+     * Execute a query with a cached prepared statement and read the whole result on the worker
+     * (a live result set can't be used, because the statement is reused by the next task)
+     * @param query The sql query with ? as parameters
+     * @param values The values of the parameters (bound by the type of their property)
+     * @param properties The properties which declare the column types (columns without a property use the sql type of the column)
+     * @return The created task with your query (use {@link DetachedQueryTask#getDetachedResponse()})
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    public @NotNull DetachedQueryTask executePreparedSQLQuery(@NotNull String query, @NotNull TableRowValue[] values, @NotNull Property... properties) {
+        if(!isConnected())
+            throw new DatabaseNotConnectedException(this);
+
+        return executeConnectionTask(new DetachedQueryTask() {
+            @Override
+            public void execute(@NotNull Connection connection) throws SQLException {
+                final PreparedStatement statement = pool.prepare(connection, query);
+                final DetachedResultSet result;
+
+                StatementBinder.bindAll(statement, values);
+
+                try(ResultSet set = statement.executeQuery()) {
+                    result = DetachedResultSet.read(set, properties);
+                }
+
+                this.getDetachedResponse().accept(result);
+            }
+
+        });
+    }
+
+    /**
+     * Execute a query and read the whole result on the worker. The statement is closed before the response is received,
+     * so the {@link DetachedResultSet} can be used from any thread
+     * @param query The sql query
+     * @param properties The properties which declare the column types (columns without a property use the sql type of the column)
+     * @return The created task with your query (use {@link DetachedQueryTask#getDetachedResponse()})
+     * @throws DatabaseNotConnectedException When the database is not connected
+     */
+    public @NotNull DetachedQueryTask executeDetachedSQLQuery(@NotNull String query, @NotNull Property... properties) {
+        if(!isConnected())
+            throw new DatabaseNotConnectedException(this);
+
+        return executeConnectionTask(new DetachedQueryTask() {
+            @Override
+            public void execute(@NotNull Connection connection) throws SQLException {
+                final DetachedResultSet result;
+
+                try(Statement statement = connection.createStatement(); ResultSet set = statement.executeQuery(query)) {
+                    result = DetachedResultSet.read(set, properties);
+                }
+
+                this.getDetachedResponse().accept(result);
+            }
+
+        });
+    }
+
+    /**
+     * Stream the result of a query in chunks (uses a server side cursor). The query is executed when a subscriber subscribes
+     * @param query The sql query
+     * @param fetchSize How many rows are fetched at once (also the maximum size of a chunk)
+     * @param properties The properties which declare the column types (columns without a property use the sql type of the column)
+     * @return The publisher of the chunks
+     */
+    public @NotNull ResultStreamPublisher streamSQLQuery(@NotNull String query, int fetchSize, @NotNull Property... properties) {
+        return new ResultStreamPublisher(this, query, fetchSize, properties);
+    }
+
+    /**
+     * Update the connection state and complete the waiting {@link #whenConnected()} futures
+     * @param connected Is the sql connected
+     */
+    public synchronized void setConnected(boolean connected) {
+        this.isConnected = connected;
+
+        if(connected) {
+            if(!this.connectionFuture.complete(this) && this.connectionFuture.isCompletedExceptionally())
+                this.connectionFuture = CompletableFuture.completedFuture(this);
+        }else if(this.connectionFuture.isDone() && !this.connectionFuture.isCompletedExceptionally()) {
+            this.connectionFuture = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * @return A future which completes when the bridge is connected (directly when it is already connected). It fails
+     * when the worker gave up connecting. Every call returns an own copy, so e.g. a timeout doesn't affect other waiters
+     */
+    public @NotNull CompletableFuture<ConnectionBridge> whenConnected() {
+        return this.connectionFuture.copy();
+    }
+
+    /**
+     * Let everyone who waits for the connection know that it couldn't be created
+     * @param cause Why the connection failed
+     */
+    @ApiStatus.Internal
+    public synchronized void failConnection(@NotNull Throwable cause) {
+        this.connectionFuture.completeExceptionally(cause);
+    }
+
+    /**
+     * Reset the connection (make connected = false, set the attempts to 0, set the last query which got executed to -1, close all idle connections)
      */
     public void reset() {
         Bukkit.getLogger().info(String.format("ConnectionBridge >> SQLConnection closed (%s:%s)", getInformation().hostname(), getInformation().port()));
@@ -101,6 +280,8 @@ public class ConnectionBridge {
         setConnected(false);
         setAttempts(0);
         setLastQuery(-1);
+
+        this.pool.closeIdle();
     }
 
 }
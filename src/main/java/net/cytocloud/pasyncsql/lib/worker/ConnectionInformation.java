@@ -19,8 +19,18 @@ import java.io.IOException;
  * @param password The password
  * @param timeout How long in seconds does the sql timeout (when no Queries are sent?)
  * @param tries How long does the async sql tries to connect to the server before it stops
+ * @param minIdle How many connections are kept open while no tasks are executed
+ * @param maxPoolSize How many connections (and tasks) can be used at the same time
+ * @param executionMode Which kind of threads executes the tasks
  */
-public record ConnectionInformation(String hostname, int port, String database, String username, String password, int timeout, int tries) {
+public record ConnectionInformation(String hostname, int port, String database, String username, String password, int timeout, int tries, int minIdle, int maxPoolSize, ExecutionMode executionMode) {
+
+    public static final int DEFAULT_MIN_IDLE = 1;
+    public static final int DEFAULT_MAX_POOL_SIZE = 4;
+
+    public ConnectionInformation(String hostname, int port, String database, String username, String password, int timeout, int tries) {
+        this(hostname, port, database, username, password, timeout, tries, DEFAULT_MIN_IDLE, DEFAULT_MAX_POOL_SIZE, ExecutionMode.PLATFORM);
+    }
 
     public static ConnectionInformation fromConfig(@NotNull String configFile) {
         File f = new File(configFile);
@@ -66,8 +76,11 @@ public record ConnectionInformation(String hostname, int port, String database,
             final String password = obj.get("password").getAsString();
             final int timeout = obj.get("timeout").getAsInt();
             final int tries = obj.get("tries").getAsInt();
+            final int minIdle = obj.has("minIdle") ? obj.get("minIdle").getAsInt() : DEFAULT_MIN_IDLE;
+            final int maxPoolSize = obj.has("maxPoolSize") ? obj.get("maxPoolSize").getAsInt() : DEFAULT_MAX_POOL_SIZE;
+            final ExecutionMode executionMode = obj.has("executionMode") ? ExecutionMode.valueOf(obj.get("executionMode").getAsString().toUpperCase()) : ExecutionMode.PLATFORM;
 
-            return new ConnectionInformation(hostname, port, database, username, password, timeout, tries);
+            return new ConnectionInformation(hostname, port, database, username, password, timeout, tries, minIdle, maxPoolSize, executionMode);
         }catch(Exception e) {
             throw new RuntimeException(e);
         }
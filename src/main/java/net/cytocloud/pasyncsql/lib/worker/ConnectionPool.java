@@ -0,0 +1,199 @@
+package net.cytocloud.pasyncsql.lib.worker;
+
+import lombok.Getter;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds all sql connections of a {@link ConnectionBridge}. A task needs a reserved slot ({@link #tryReserve()}) before it can
+ * {@link #acquire()} a connection, so never more than {@link ConnectionInformation#maxPoolSize()} connections are in use at once
+ */
+public class ConnectionPool {
+
+    private final @NotNull ConnectionBridge bridge;
+    private final @NotNull Semaphore slots;
+    private final @NotNull ConcurrentLinkedDeque<Connection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final @NotNull Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+
+    @Getter
+    private final @NotNull AtomicInteger openConnections = new AtomicInteger(0);
+
+    public ConnectionPool(@NotNull ConnectionBridge bridge) {
+        this.bridge = bridge;
+        this.slots = new Semaphore(Math.max(1, bridge.getInformation().maxPoolSize()));
+    }
+
+    /**
+     * Reserve a slot for one task without blocking
+     * @return true when a slot is free (needs to be given back with {@link #release(Connection)} or {@link #cancelReservation()})
+     */
+    @ApiStatus.Internal
+    public boolean tryReserve() {
+        return this.slots.tryAcquire();
+    }
+
+    /**
+     * Give a reserved slot back without using it
+     */
+    @ApiStatus.Internal
+    public void cancelReservation() {
+        this.slots.release();
+    }
+
+    /**
+     * Get an idle connection or open a new one. Requires a reserved slot
+     * @return The connection which can be used by the task
+     * @throws SQLException When a new connection couldn't be created
+     */
+    @ApiStatus.Internal
+    public @NotNull Connection acquire() throws SQLException {
+        final @Nullable Connection idle = this.idleConnections.pollFirst();
+
+        if(idle != null)
+            return idle;
+
+        return open();
+    }
+
+    /**
+     * Give the connection of a finished task back to the pool and free the reserved slot
+     * @param connection The used connection (or null when no connection could be acquired)
+     */
+    @ApiStatus.Internal
+    public void release(@Nullable Connection connection) {
+        try {
+            if(connection == null)
+                return;
+
+            // Connections of a disconnected bridge are not reused
+            if(!this.bridge.isConnected() || connection.isClosed()) {
+                close(connection);
+                return;
+            }
+
+            this.idleConnections.offerFirst(connection);
+        }catch(SQLException e) {
+            close(connection);
+            SQLWorker.getExceptionLogger().accept(e);
+        }finally {
+            this.slots.release();
+        }
+    }
+
+    /**
+     * Open a new sql connection which belongs to this pool
+     * @return The new connection
+     * @throws SQLException When the connection couldn't be established
+     */
+    public @NotNull Connection open() throws SQLException {
+        final ConnectionInformation information = this.bridge.getInformation();
+
+        //Connect to the sql
+        final Connection connection = DriverManager.getConnection("jdbc:mysql://" + information.hostname() +":"+information.port()+"/" + information.database() + "?user=" + information.username() + "&password=" + information.password() + "&autoReconnect=true&useCursorFetch=true&useServerPrepStmts=true&rewriteBatchedStatements=true");
+
+        this.openConnections.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * Get the cached prepared statement of a query for a pooled connection (prepares it on first use). Don't close the statement, it is reused
+     * @param connection The connection of the task
+     * @param sql The sql query with ? as parameters
+     * @return The prepared statement
+     * @throws SQLException When the statement couldn't be prepared
+     */
+    public @NotNull PreparedStatement prepare(@NotNull Connection connection, @NotNull String sql) throws SQLException {
+        return this.statementCaches.computeIfAbsent(connection, c -> new StatementCache(c, StatementCache.DEFAULT_SIZE)).prepare(sql);
+    }
+
+    /**
+     * Add an already opened connection to the idle connections
+     * @param connection The connection (created with {@link #open()})
+     */
+    public void addIdle(@NotNull Connection connection) {
+        this.idleConnections.offerLast(connection);
+    }
+
+    /**
+     * Open new connections until the minimum of idle connections is reached
+     * @throws SQLException When a connection couldn't be established
+     */
+    public void fillIdle() throws SQLException {
+        final ConnectionInformation information = this.bridge.getInformation();
+
+        while(this.idleConnections.size() < information.minIdle() && this.openConnections.get() < information.maxPoolSize())
+            addIdle(open());
+    }
+
+    /**
+     * Check all idle connections and close the ones which are not valid anymore
+     */
+    public void validateIdle() {
+        for(Connection connection : new ArrayList<>(this.idleConnections)) {
+            if(!this.idleConnections.remove(connection)) // got taken by a task in the meantime
+                continue;
+
+            try {
+                if(!connection.isValid(10)) {
+                    close(connection);
+                    continue;
+                }
+            }catch(SQLException e) {
+                close(connection);
+                SQLWorker.getExceptionLogger().accept(e);
+                continue;
+            }
+
+            this.idleConnections.offerLast(connection);
+        }
+    }
+
+    /**
+     * Close all idle connections. Connections in use are closed when their task is finished and the bridge is disconnected
+     */
+    public void closeIdle() {
+        final List<Connection> connections = new ArrayList<>();
+
+        Connection connection;
+        while((connection = this.idleConnections.pollFirst()) != null)
+            connections.add(connection);
+
+        connections.forEach(this::close);
+    }
+
+    /**
+     * @return How many connections are currently not used by a task
+     */
+    public int getIdleCount() {
+        return this.idleConnections.size();
+    }
+
+    private void close(@NotNull Connection connection) {
+        this.openConnections.decrementAndGet();
+
+        final @Nullable StatementCache statementCache = this.statementCaches.remove(connection);
+
+        if(statementCache != null)
+            statementCache.clear();
+
+        try {
+            connection.close();
+        }catch(SQLException e) {
+            SQLWorker.getExceptionLogger().accept(e);
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package net.cytocloud.pasyncsql.lib.worker;
+
+/**
+ * Which kind of threads executes the tasks of a {@link ConnectionBridge}
+ */
+public enum ExecutionMode {
+
+    /**
+     * A fixed amount of platform threads (one per pooled connection)
+     */
+    PLATFORM,
+
+    /**
+     * Every task gets its own virtual thread (needs Java 21 or newer, otherwise {@link #PLATFORM} is used)
+     */
+    VIRTUAL
+
+}
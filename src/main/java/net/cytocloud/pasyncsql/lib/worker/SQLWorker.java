@@ -2,181 +2,383 @@ package net.cytocloud.pasyncsql.lib.worker;
 
 import lombok.Getter;
 import lombok.Setter;
+import net.cytocloud.pasyncsql.lib.worker.exceptions.DatabaseNotConnectedException;
 import net.cytocloud.pasyncsql.lib.worker.helper.Task;
+import net.cytocloud.pasyncsql.lib.worker.helper.VirtualThreads;
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
-
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Every {@link ConnectionBridge} gets its own worker (dispatcher thread, executor threads and maintenance timer),
+ * so a slow or unreachable database can't stall the tasks of other databases
+ */
 public class SQLWorker extends Thread {
 
     @Setter @Getter
-    private static @NotNull Consumer<SQLException> exceptionLogger = e -> {
-        Bukkit.getLogger().severe("A sql exception occurred asynchron. Please override the exception logger to catch errors more effective");
-        e.printStackTrace(); //TODO: add better exception logging
-    };
+    private static @NotNull Consumer<SQLException> exceptionLogger = e -> Bukkit.getLogger().log(Level.SEVERE, "A sql exception occurred asynchron", e);
+
+    private static final long MAINTENANCE_INTERVAL = 1000; // How often (in ms) the connections are checked (connect, reconnect, timeout)
+    private static final long SHUTDOWN_GRACE = 5; // How long (in s) running tasks can finish before they are interrupted
 
-    private static final @NotNull SQLWorker worker = new SQLWorker();
+    private static final @NotNull AtomicInteger workerCount = new AtomicInteger(0);
     private static final @NotNull ConcurrentLinkedQueue<ConnectionBridge> connectedBridges = new ConcurrentLinkedQueue<>();
-    private static boolean isActive = false;
+    private static final @NotNull Map<ConnectionBridge, SQLWorker> workers = new ConcurrentHashMap<>();
+    private static volatile boolean isActive = false;
+
+    @Getter
+    private final @NotNull ConnectionBridge bridge;
+    private final @NotNull ExecutorService executor; // executes the tasks (concurrency is limited by the connection pool)
+    private final @NotNull ScheduledExecutorService maintenanceTimer;
+    private volatile boolean isRunning = false;
+
+    public SQLWorker(@NotNull ConnectionBridge bridge) {
+        final String name = "PowerfulSQL-Worker-" + workerCount.incrementAndGet() + "-" + bridge.getInformation().database();
+
+        setName(name);
+        setDaemon(true);
 
-    public SQLWorker() {
-        setName("PowerfulSQL-Worker");
+        this.bridge = bridge;
+        this.executor = createExecutor(name, bridge.getInformation());
+
+        this.maintenanceTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, name + "-Maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the executor for the tasks of a bridge depending on the execution mode
+     * @param name The name of the worker
+     * @param information The connection information of the bridge
+     * @return The executor
+     */
+    private static @NotNull ExecutorService createExecutor(@NotNull String name, @NotNull ConnectionInformation information) {
+        if(information.executionMode() == ExecutionMode.VIRTUAL) {
+            if(VirtualThreads.isAvailable()) {
+                try {
+                    return VirtualThreads.newThreadPerTaskExecutor(name + "-Virtual-");
+                }catch(UnsupportedOperationException e) {
+                    Bukkit.getLogger().warning("Couldn't create the virtual thread executor: " + e.getMessage());
+                }
+            }
+
+            Bukkit.getLogger().warning("Virtual threads are not supported by this java version. The connection \"" + information.database() + "\" uses platform threads instead");
+        }
+
+        final int poolSize = Math.max(1, information.maxPoolSize());
+        final AtomicInteger executorCount = new AtomicInteger(0);
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            final Thread thread = new Thread(r, name + "-Executor-" + executorCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     @Override
     public void run() {
-        List<ConnectionBridge> readyToRemove = new ArrayList<>();
+        while(isRunning) {
+            // Nothing to do -> sleep until the bridge receives a task or a connection gets free again (see #wakeUp)
+            if(!dispatchTasks())
+                LockSupport.park(this);
+        }
+    }
 
-        while(isActive) {
-            synchronized (connectedBridges) {
+    /**
+     * Hand the queued tasks of the bridge to the executor threads (as long as the pool has free connections)
+     * @return true when at least one task got dispatched
+     */
+    private boolean dispatchTasks() {
+        final ConnectionPool pool = this.bridge.getPool();
+        boolean dispatchedAnything = false;
 
-                connectedBridges.forEach(bridge -> {
+        while(this.bridge.isConnected() && !this.bridge.getSqlTasks().isEmpty() && pool.tryReserve()) {
+            final @Nullable Task task = this.bridge.getSqlTasks().poll();
 
-                    /*
-                        Make sure the sql is connected (When not -> Connect)
-                     */
+            if(task == null) {
+                pool.cancelReservation();
+                break;
+            }
 
-                    if(!bridge.isConnected()) {
-                        if(bridge.getAttempts() >= bridge.getInformation().tries()) {
-                            readyToRemove.add(bridge);
-                            return; // Too many attempts remove the bridge
-                        }
+            this.executor.execute(() -> executeTask(task));
+            dispatchedAnything = true;
+        }
 
-                        final @Nullable Connection connection = createConnection(bridge);
+        return dispatchedAnything;
+    }
 
-                        if(connection == null) // No connection got created (skip)
-                            return;
+    /**
+     * Execute a task with a connection of the bridge pool (runs on an executor thread)
+     * @param task The task
+     */
+    private void executeTask(@NotNull Task task) {
+        final ConnectionPool pool = this.bridge.getPool();
+        @Nullable Connection connection = null;
 
-                        bridge.setConnected(true);
-                        bridge.setConnection(connection);
+        try {
+            if(task.isExecuted()) // the task got already executed?
+                return;
 
-                        Bukkit.getLogger().info(String.format("ConnectionBridge >> SQLConnection created (%s:%s)", bridge.getInformation().hostname(), bridge.getInformation().port()));
+            connection = pool.acquire();
+            task.execute(connection); // Execute the task
+        } catch (SQLException e) {
 
-                        return; // This bridge can execute tasks in the next rotation
-                    }
+            task.fail(e);
+            getExceptionLogger().accept(e);
 
-                    /*
-                        The bridge is connected:
-                        - Close the connection when:
-                            - It got closed remotely
-                            - The last sent query was x seconds before (Timeout) ---> Used to only connect when tasks are required
-                        - Try to execute all tasks
-                     */
+        } catch (RuntimeException e) {
 
-                    final Connection connection = bridge.getConnection();
+            task.fail(e);
+            Bukkit.getLogger().log(Level.SEVERE, "A task threw an exception", e);
 
-                    // The connection is null? ---> Make the connection offline
-                    if(connection == null) {
-                        bridge.reset();
-                        return;
-                    }
+        }finally {
+            if(!task.isExecuted()) {
+                task.setExecuted(true);
+                task.recognizeExecution();
+                this.bridge.setLastQuery(System.currentTimeMillis());
+            }
 
-                    try {
-                        if(!connection.isValid(10)) {
-                            bridge.reset();
-                            return;
-                        }
-                    }catch(SQLException e) {
-                        bridge.reset();
-                        getExceptionLogger().accept(e);
-                        return;
-                    }
+            pool.release(connection);
+            wakeUp(); // a connection is free again
+        }
+    }
 
-                    // Is a timeout occurred?
-                    if(bridge.getLastQuery() != -1 && ((System.currentTimeMillis() - bridge.getLastQuery()) / 1000 >= bridge.getInformation().timeout())) {
-                        bridge.reset();
-                        return;
-                    }
+    /**
+     * Runs on the maintenance timer. Connects, reconnects and closes the bridge on timeout
+     */
+    private void maintainBridge() {
+        final ConnectionPool pool = this.bridge.getPool();
+
+        /*
+            Make sure the sql is connected (When not -> Connect)
+         */
+
+        if(!this.bridge.isConnected()) {
+            if(this.bridge.getAttempts() >= this.bridge.getInformation().tries()) {
+                // Too many attempts remove the bridge
+                connectedBridges.remove(this.bridge);
+                workers.remove(this.bridge);
+                stopWorker();
+
+                // Nobody would execute the remaining tasks -> let waiting threads know
+                this.bridge.failConnection(new DatabaseNotConnectedException(this.bridge));
+
+                Task task;
+                while((task = this.bridge.getSqlTasks().poll()) != null) {
+                    task.fail(new DatabaseNotConnectedException(this.bridge));
+                    task.recognizeExecution();
+                }
+
+                return;
+            }
 
-                    /*
+            try {
+                final Connection connection = pool.open();
 
-                        -- Execute tasks on the sql
+                this.bridge.setRowAliasSupported(supportsRowAlias(connection));
+                pool.addIdle(connection);
+            }catch(SQLException e) { // No connection got created (skip)
+                this.bridge.setAttempts(this.bridge.getAttempts() + 1);
+                getExceptionLogger().accept(e);
+                return;
+            }
 
-                     */
+            this.bridge.setConnected(true);
 
-                   synchronized (bridge.getSqlTasks()) {
+            Bukkit.getLogger().info(String.format("ConnectionBridge >> SQLConnection created (%s:%s)", this.bridge.getInformation().hostname(), this.bridge.getInformation().port()));
 
-                       while(!bridge.getSqlTasks().isEmpty()) {
-                           final @NotNull Task task = bridge.getSqlTasks().poll();
+            wakeUp();
+            return; // This bridge can execute tasks from now on
+        }
 
-                           if(task.isExecuted()) // the task got already executed?
-                               continue;
+        /*
+            The bridge is connected:
+            - Close the connections when:
+                - They got closed remotely
+                - The last sent query was x seconds before (Timeout) ---> Used to only connect when tasks are required
+            - Keep the minimum of idle connections open
+         */
+
+        // Is a timeout occurred?
+        if(this.bridge.getLastQuery() != -1 && ((System.currentTimeMillis() - this.bridge.getLastQuery()) / 1000 >= this.bridge.getInformation().timeout())) {
+            this.bridge.reset();
+            return;
+        }
 
-                           try {
-                               task.execute(bridge.getConnection()); // Execute the task
-                           } catch (SQLException e) {
+        pool.validateIdle();
 
-                               task.setExceptionThrown(e);
-                               getExceptionLogger().accept(e);
+        try {
+            pool.fillIdle();
+        }catch(SQLException e) {
+            getExceptionLogger().accept(e);
+        }
+    }
 
-                           }finally {
-                               task.setExecuted(true);
-                               task.recognizeExecution();
-                               bridge.setLastQuery(System.currentTimeMillis());
-                           }
+    /**
+     * Row aliases in INSERT ... ON DUPLICATE KEY UPDATE are supported since MySQL 8.0.19 (MariaDB has no support)
+     * @param connection The opened connection
+     * @return true when the database supports row aliases
+     */
+    private static boolean supportsRowAlias(@NotNull Connection connection) throws SQLException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        final String version = metaData.getDatabaseProductVersion();
 
+        if(!metaData.getDatabaseProductName().equalsIgnoreCase("MySQL") || version.toLowerCase().contains("mariadb"))
+            return false;
 
-                       }
+        final int major = metaData.getDatabaseMajorVersion();
+        final int minor = metaData.getDatabaseMinorVersion();
 
-                   }
+        if(major != 8 || minor != 0)
+            return major > 8 || (major == 8 && minor > 0);
 
-                });
+        final Matcher matcher = Pattern.compile("^8\\.0\\.(\\d+)").matcher(version);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) >= 19;
+    }
 
-            }
+    /**
+     * Wake the worker up when it is waiting for new tasks
+     */
+    @ApiStatus.Internal
+    public void wakeUp() {
+        LockSupport.unpark(this);
+    }
 
-            // Delete all expired connections
-            readyToRemove.forEach(connectedBridges::remove);
-            readyToRemove.clear();
-        }
+    private void startWorker() {
+        this.isRunning = true;
+        start();
+
+        this.maintenanceTimer.scheduleWithFixedDelay(() -> {
+            try {
+                maintainBridge();
+            }catch(RuntimeException e) { // an uncaught exception would cancel the timer
+                Bukkit.getLogger().log(Level.SEVERE, "The sql maintenance failed", e);
+            }
+        }, 0, MAINTENANCE_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
-    private @Nullable Connection createConnection(@NotNull ConnectionBridge bridge) {
-        final ConnectionInformation information = bridge.getInformation();
+    private void stopWorker() {
+        this.isRunning = false;
+        interrupt();
+
+        this.maintenanceTimer.shutdownNow();
+        this.executor.shutdown();
+    }
 
+    private void awaitTermination() {
         try {
-            //Connect to the sql
-            return DriverManager.getConnection("jdbc:mysql://" + information.hostname() +":"+information.port()+"/" + information.database() + "?user=" + information.username() + "&password=" + information.password() + "&autoReconnect=true");
-        }catch(SQLException e) {
-            bridge.setAttempts(bridge.getAttempts() + 1);
-            getExceptionLogger().accept(e);
+            if(!this.executor.awaitTermination(SHUTDOWN_GRACE, TimeUnit.SECONDS))
+                this.executor.shutdownNow();
+        }catch(InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
+    }
+
+    /**
+     * Wake the worker of the bridge up when it is waiting for new tasks
+     * @param bridge The bridge which received a task
+     */
+    @ApiStatus.Internal
+    public static void wakeUp(@NotNull ConnectionBridge bridge) {
+        final @Nullable SQLWorker worker = workers.get(bridge);
 
-        return null;
+        if(worker != null)
+            worker.wakeUp();
     }
 
     @ApiStatus.Internal
     public static void registerConnectionBridge(@NotNull ConnectionBridge bridge) {
-        synchronized (connectedBridges) {
-            connectedBridges.add(bridge);
+        connectedBridges.add(bridge);
+
+        synchronized (workers) {
+            if(isActive)
+                startWorkerFor(bridge);
         }
     }
 
-    public static void startThread() {
-        Bukkit.getLogger().info("Start sql worker thread");
+    /**
+     * Stop the worker of a bridge and close its connections (e.g. when the tables of its connection couldn't be bound).
+     * Running tasks can finish, queued tasks fail with a {@link DatabaseNotConnectedException}
+     * @param bridge The bridge which is not used anymore
+     */
+    @ApiStatus.Internal
+    public static void unregisterConnectionBridge(@NotNull ConnectionBridge bridge) {
+        connectedBridges.remove(bridge);
 
-        if(Thread.getAllStackTraces().keySet().stream().anyMatch(td -> td.getName().equals("PowerfulSQL-Worker"))) {
-            Bukkit.getLogger().warning("A thread named \"SQL Worker\" is already running");
-            return;
+        synchronized (workers) {
+            final @Nullable SQLWorker worker = workers.remove(bridge);
+
+            if(worker != null)
+                worker.stopWorker(); // not awaited, this can be called by a task of the worker
+        }
+
+        bridge.setConnected(false);
+        bridge.getPool().closeIdle();
+
+        Task task;
+        while((task = bridge.getSqlTasks().poll()) != null) {
+            task.fail(new DatabaseNotConnectedException(bridge));
+            task.recognizeExecution();
         }
+    }
+
+    private static void startWorkerFor(@NotNull ConnectionBridge bridge) {
+        final SQLWorker worker = new SQLWorker(bridge);
+
+        workers.put(bridge, worker);
+        worker.startWorker();
+    }
+
+    public static void startThread() {
+        Bukkit.getLogger().info("Start sql worker threads");
+
+        synchronized (workers) {
+            if(isActive) {
+                Bukkit.getLogger().warning("The sql workers are already running");
+                return;
+            }
 
-        isActive = true;
-        worker.start();
+            isActive = true;
+            connectedBridges.forEach(SQLWorker::startWorkerFor);
+        }
     }
 
     public static void stopThread() {
-        Bukkit.getLogger().info("Stop sql worker thread");
+        Bukkit.getLogger().info("Stop sql worker threads");
 
-        isActive = false;
-        worker.interrupt();
+        synchronized (workers) {
+            isActive = false;
+
+            workers.values().forEach(SQLWorker::stopWorker);
+            workers.values().forEach(SQLWorker::awaitTermination); // running tasks (e.g. streams) are interrupted after the grace period
+            workers.clear();
+        }
     }
 
 }
@@ -0,0 +1,69 @@
+package net.cytocloud.pasyncsql.lib.worker;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The prepared statements of one pooled connection. The least recently used statement gets closed when the cache is full.
+ * A connection is only used by one task at a time, so the cache doesn't need to be thread safe
+ */
+public class StatementCache {
+
+    public static final int DEFAULT_SIZE = 64;
+
+    private final @NotNull Connection connection;
+    private final @NotNull LinkedHashMap<String, PreparedStatement> statements;
+
+    public StatementCache(@NotNull Connection connection, int size) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if(size() <= size)
+                    return false;
+
+                close(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get the prepared statement of a query (prepares it on first use). Don't close the statement, it is reused
+     * @param sql The sql query with ? as parameters
+     * @return The prepared statement
+     * @throws SQLException When the statement couldn't be prepared
+     */
+    public @NotNull PreparedStatement prepare(@NotNull String sql) throws SQLException {
+        PreparedStatement statement = this.statements.get(sql);
+
+        if(statement == null || statement.isClosed()) {
+            statement = this.connection.prepareStatement(sql);
+            this.statements.put(sql, statement);
+        }
+
+        return statement;
+    }
+
+    /**
+     * Close all cached statements
+     */
+    public void clear() {
+        this.statements.values().forEach(StatementCache::close);
+        this.statements.clear();
+    }
+
+    private static void close(@NotNull PreparedStatement statement) {
+        try {
+            statement.close();
+        }catch(SQLException e) {
+            SQLWorker.getExceptionLogger().accept(e);
+        }
+    }
+
+}
@@ -8,6 +8,10 @@ public class InternalDatabaseError extends RuntimeException {
         super(message);
     }
 
+    public InternalDatabaseError(@NotNull String message, @NotNull Throwable cause) {
+        super(message, cause);
+    }
+
     @Override
     public String getMessage() {
         return "An internal database error occurred: " + super.getMessage();
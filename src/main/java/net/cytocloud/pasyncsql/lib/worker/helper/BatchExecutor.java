@@ -0,0 +1,89 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Sends statements in batches inside one transaction. Everything is committed together or nothing is committed
+ * (also when a value couldn't be bound)
+ */
+public class BatchExecutor {
+
+    /**
+     * Execute many update requests
+     * @param connection The connection
+     * @param statement A statement of the connection
+     * @param queries The sql queries
+     * @param batchSize How many queries are sent at once
+     * @throws SQLException When a query failed (the transaction got rolled back)
+     */
+    public static void execute(@NotNull Connection connection, @NotNull Statement statement, @NotNull List<String> queries, int batchSize) throws SQLException {
+        final boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try {
+            for(int i = 0; i < queries.size(); i++) {
+                statement.addBatch(queries.get(i));
+
+                if((i + 1) % batchSize == 0 || i == queries.size() - 1)
+                    statement.executeBatch();
+            }
+
+            connection.commit();
+        }catch(SQLException | RuntimeException e) {
+            rollback(connection, statement, e);
+            throw e;
+        }finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Execute a prepared update request for many rows. Every row is bound and added to the batch
+     * @param connection The connection
+     * @param statement A prepared statement of the connection
+     * @param rows The values of the parameters of every row (bound by the type of their property)
+     * @param batchSize How many rows are sent at once
+     * @throws SQLException When a row failed (the transaction got rolled back)
+     */
+    public static void execute(@NotNull Connection connection, @NotNull PreparedStatement statement, @NotNull List<TableRowValue[]> rows, int batchSize) throws SQLException {
+        final boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try {
+            for(int i = 0; i < rows.size(); i++) {
+                StatementBinder.bindAll(statement, rows.get(i));
+                statement.addBatch();
+
+                if((i + 1) % batchSize == 0 || i == rows.size() - 1)
+                    statement.executeBatch();
+            }
+
+            connection.commit();
+        }catch(SQLException | RuntimeException e) {
+            rollback(connection, statement, e);
+            throw e;
+        }finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Drop the rows which are not sent yet (the statement is reused) and roll the sent rows back
+     */
+    private static void rollback(@NotNull Connection connection, @NotNull Statement statement, @NotNull Exception cause) {
+        try {
+            statement.clearBatch();
+            connection.rollback();
+        }catch(SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import lombok.Getter;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A query task which responds with a {@link DetachedResultSet} instead of a live {@link java.sql.ResultSet}
+ */
+@Getter
+public abstract class DetachedQueryTask extends Task {
+
+    private final @NotNull ResponseFuture<DetachedResultSet> detachedResponse = new ResponseFuture<>();
+
+    @Override
+    @ApiStatus.Internal
+    public void fail(@NotNull Throwable throwable) {
+        super.fail(throwable);
+        this.detachedResponse.fail(throwable);
+    }
+
+}
@@ -0,0 +1,271 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import lombok.Getter;
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A fully read result of a query which is not bound to a statement or connection anymore. The values are stored column by column
+ * (int[] for INT/SMALLINT, long[] for BIGINT, String[] for VARCHAR/TEXT, Object[] for everything else), so it can be read from any thread
+ */
+public class DetachedResultSet {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    @Getter
+    private final @NotNull String[] columnNames;
+
+    @Getter
+    private final @Nullable Property.Type[] columnTypes; // null => the column is stored as objects
+
+    private final @NotNull Object[] columns;
+    private final @NotNull BitSet[] nulls;
+
+    @Getter
+    private final int rowCount;
+
+    private DetachedResultSet(@NotNull String[] columnNames, @Nullable Property.Type[] columnTypes, @NotNull Object[] columns, @NotNull BitSet[] nulls, int rowCount) {
+        this.columnNames = columnNames;
+        this.columnTypes = columnTypes;
+        this.columns = columns;
+        this.nulls = nulls;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Read all remaining rows of the result set. The result set can be closed afterwards
+     * @param resultSet The result set
+     * @param properties The properties which declare the column types (columns without a property use the sql type of the column)
+     * @return The detached result
+     * @throws SQLException When reading the result set fails
+     */
+    public static @NotNull DetachedResultSet read(@NotNull ResultSet resultSet, @NotNull Property... properties) throws SQLException {
+        return read(resultSet, Integer.MAX_VALUE, properties);
+    }
+
+    /**
+     * Read the next rows of the result set
+     * @param resultSet The result set
+     * @param maxRows How many rows are read at most
+     * @param properties The properties which declare the column types (columns without a property use the sql type of the column)
+     * @return The detached result (with 0 rows when the result set has no rows left)
+     * @throws SQLException When reading the result set fails
+     */
+    public static @NotNull DetachedResultSet read(@NotNull ResultSet resultSet, int maxRows, @NotNull Property... properties) throws SQLException {
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        final int columnCount = metaData.getColumnCount();
+
+        final String[] columnNames = new String[columnCount];
+        final Property.Type[] columnTypes = new Property.Type[columnCount];
+        final Object[] columns = new Object[columnCount];
+        final BitSet[] nulls = new BitSet[columnCount];
+
+        for(int i = 0; i < columnCount; i++) {
+            columnNames[i] = metaData.getColumnLabel(i + 1);
+            columnTypes[i] = findType(columnNames[i], metaData.getColumnType(i + 1), properties);
+            columns[i] = createColumn(columnTypes[i], INITIAL_CAPACITY);
+            nulls[i] = new BitSet();
+        }
+
+        int rows = 0;
+        int capacity = INITIAL_CAPACITY;
+
+        while(rows < maxRows && resultSet.next()) {
+            if(rows == capacity) {
+                capacity *= 2;
+
+                for(int i = 0; i < columnCount; i++)
+                    columns[i] = grow(columns[i], capacity);
+            }
+
+            for(int i = 0; i < columnCount; i++) {
+                final int column = i + 1;
+                final Object array = columns[i];
+
+                if(array instanceof int[] ints) {
+                    ints[rows] = resultSet.getInt(column);
+                }else if(array instanceof long[] longs) {
+                    longs[rows] = resultSet.getLong(column);
+                }else if(array instanceof String[] strings) {
+                    strings[rows] = resultSet.getString(column);
+                }else {
+                    ((Object[]) array)[rows] = resultSet.getObject(column);
+                }
+
+                if(resultSet.wasNull())
+                    nulls[i].set(rows);
+            }
+
+            rows++;
+        }
+
+        // Cut the unused capacity
+        for(int i = 0; i < columnCount; i++)
+            columns[i] = grow(columns[i], rows);
+
+        return new DetachedResultSet(columnNames, columnTypes, columns, nulls, rows);
+    }
+
+    /**
+     * Get the index of a column
+     * @param columnName The name of the column (case-insensitive)
+     * @return The index of the column (starting with 0)
+     * @throws IllegalArgumentException When the column doesn't exist
+     */
+    public int findColumn(@NotNull String columnName) {
+        for(int i = 0; i < this.columnNames.length; i++) {
+            if(this.columnNames[i].equalsIgnoreCase(columnName))
+                return i;
+        }
+
+        throw new IllegalArgumentException("The column \"" + columnName + "\" doesn't exist in the result " + Arrays.toString(this.columnNames));
+    }
+
+    /**
+     * @return The amount of columns
+     */
+    public int getColumnCount() {
+        return this.columnNames.length;
+    }
+
+    /**
+     * @return true when the result has no rows
+     */
+    public boolean isEmpty() {
+        return this.rowCount == 0;
+    }
+
+    public boolean isNull(int row, int column) {
+        checkRow(row);
+        return this.nulls[column].get(row);
+    }
+
+    public int getInt(int row, int column) {
+        checkRow(row);
+        final Object array = this.columns[column];
+
+        if(array instanceof int[] ints)
+            return ints[row];
+
+        return (int) getLong(row, column);
+    }
+
+    public int getInt(int row, @NotNull String columnName) {
+        return getInt(row, findColumn(columnName));
+    }
+
+    public long getLong(int row, int column) {
+        checkRow(row);
+        final Object array = this.columns[column];
+
+        if(array instanceof long[] longs)
+            return longs[row];
+
+        if(array instanceof int[] ints)
+            return ints[row];
+
+        final @Nullable Object object = getObject(row, column);
+
+        if(object == null)
+            return 0;
+
+        return object instanceof Number number ? number.longValue() : Long.parseLong(object.toString());
+    }
+
+    public long getLong(int row, @NotNull String columnName) {
+        return getLong(row, findColumn(columnName));
+    }
+
+    public @Nullable String getString(int row, int column) {
+        checkRow(row);
+        final Object array = this.columns[column];
+
+        if(array instanceof String[] strings)
+            return strings[row];
+
+        final @Nullable Object object = getObject(row, column);
+        return object == null ? null : String.valueOf(object);
+    }
+
+    public @Nullable String getString(int row, @NotNull String columnName) {
+        return getString(row, findColumn(columnName));
+    }
+
+    /**
+     * Get the value of a cell (primitive columns are boxed)
+     * @param row The row (starting with 0)
+     * @param column The column (starting with 0)
+     * @return The value or null when the sql value was null
+     */
+    public @Nullable Object getObject(int row, int column) {
+        checkRow(row);
+
+        if(this.nulls[column].get(row))
+            return null;
+
+        final Object array = this.columns[column];
+
+        if(array instanceof int[] ints)
+            return ints[row];
+
+        if(array instanceof long[] longs)
+            return longs[row];
+
+        return ((Object[]) array)[row];
+    }
+
+    public @Nullable Object getObject(int row, @NotNull String columnName) {
+        return getObject(row, findColumn(columnName));
+    }
+
+    private void checkRow(int row) {
+        if(row < 0 || row >= this.rowCount)
+            throw new IndexOutOfBoundsException("Row " + row + " is out of bounds (" + this.rowCount + " rows)");
+    }
+
+    private static @Nullable Property.Type findType(@NotNull String columnName, int sqlType, @NotNull Property... properties) {
+        for(Property property : properties) {
+            if(property.getName().equalsIgnoreCase(columnName))
+                return property.getType();
+        }
+
+        return switch(sqlType) {
+            case Types.INTEGER, Types.TINYINT -> Property.Type.INT;
+            case Types.SMALLINT -> Property.Type.SMALLINT;
+            case Types.BIGINT -> Property.Type.BIGINT;
+            case Types.VARCHAR, Types.CHAR, Types.NVARCHAR, Types.NCHAR -> Property.Type.VARCHAR;
+            case Types.LONGVARCHAR, Types.LONGNVARCHAR, Types.CLOB -> Property.Type.TEXT;
+            default -> null;
+        };
+    }
+
+    private static @NotNull Object createColumn(@Nullable Property.Type type, int capacity) {
+        if(type == null)
+            return new Object[capacity];
+
+        return switch(type) {
+            case INT, SMALLINT -> new int[capacity];
+            case BIGINT -> new long[capacity];
+            case VARCHAR, TEXT -> new String[capacity];
+        };
+    }
+
+    private static @NotNull Object grow(@NotNull Object column, int length) {
+        if(column instanceof int[] ints)
+            return Arrays.copyOf(ints, length);
+
+        if(column instanceof long[] longs)
+            return Arrays.copyOf(longs, length);
+
+        return Arrays.copyOf((Object[]) column, length);
+    }
+
+}
@@ -1,58 +1,150 @@
 package net.cytocloud.pasyncsql.lib.worker.helper;
 
+import net.cytocloud.pasyncsql.lib.worker.exceptions.InternalDatabaseError;
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.sql.ResultSet;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
 
-public class ResponseFuture {
+/**
+ * The response of a task. Backed by a {@link CompletableFuture}, so waiting threads are woken up as soon as the response is received
+ * @param <T> The type of the response (e.g. a {@link java.sql.ResultSet})
+ */
+public class ResponseFuture<T> {
 
-    private ResultSet result = null;
-    private final List<Consumer<ResultSet>> consumers = new ArrayList<>();
+    private final @NotNull CompletableFuture<T> future;
+
+    public ResponseFuture() {
+        this(new CompletableFuture<>());
+    }
+
+    public ResponseFuture(@NotNull CompletableFuture<T> future) {
+        this.future = future;
+    }
 
     /**
      * @param result The response from the sql query
      */
     @ApiStatus.Internal
-    public void accept(@NotNull ResultSet result) {
-        this.result = result;
-        this.consumers.forEach(c -> c.accept(result));
+    public void accept(@NotNull T result) {
+        this.future.complete(result);
     }
 
-    public @NotNull ResultSet sync() {
-        while(result == null) {
-            try {
-                Thread.sleep(100);
-            }catch(InterruptedException ignored) {}
+    /**
+     * Complete the response with an error (e.g. the {@link java.sql.SQLException} of the task)
+     * @param throwable The error
+     */
+    @ApiStatus.Internal
+    public void fail(@NotNull Throwable throwable) {
+        this.future.completeExceptionally(throwable);
+    }
+
+    /**
+     * Block the current thread until the response was received
+     * @return The response
+     * @throws InternalDatabaseError When the task failed or the thread got interrupted
+     */
+    public @NotNull T sync() {
+        try {
+            return this.future.get();
+        }catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalDatabaseError("Interrupted while waiting for the response", e);
+        }catch(ExecutionException e) {
+            throw new InternalDatabaseError("The task failed: " + e.getCause().getMessage(), e.getCause());
         }
+    }
 
-        return result;
+    /**
+     * Block the current thread until the response was received or the time is over
+     * @param time The maximum time to wait
+     * @param timeUnit The unit of the time
+     * @return The response or null when no response was received in time
+     * @throws InternalDatabaseError When the task failed or the thread got interrupted
+     */
+    public @Nullable T syncUntil(long time, TimeUnit timeUnit) {
+        try {
+            return this.future.get(time, timeUnit);
+        }catch(TimeoutException e) {
+            return null;
+        }catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalDatabaseError("Interrupted while waiting for the response", e);
+        }catch(ExecutionException e) {
+            throw new InternalDatabaseError("The task failed: " + e.getCause().getMessage(), e.getCause());
+        }
     }
 
-    public @Nullable ResultSet syncUntil(long time, TimeUnit timeUnit) {
-        long ms = System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(time, timeUnit);
+    /**
+     * Consume the response when it is received (directly when it is already available)
+     * @param consumer The consumer
+     */
+    public void async(@NotNull Consumer<T> consumer) {
+        this.future.thenAccept(result -> {
+            try {
+                consumer.accept(result);
+            }catch(RuntimeException e) { // would be swallowed by the future
+                Bukkit.getLogger().log(Level.SEVERE, "A response consumer threw an exception", e);
+            }
+        });
+    }
+
+    /**
+     * Consume the error when the task failed
+     * @param consumer The consumer (receives e.g. the {@link java.sql.SQLException} of the task)
+     */
+    public void onFailure(@NotNull Consumer<Throwable> consumer) {
+        this.future.whenComplete((result, throwable) -> {
+            if(throwable == null)
+                return;
 
-        while(result == null && System.currentTimeMillis() <= ms) {
             try {
-                Thread.sleep(100);
-            }catch(InterruptedException ignored) {}
-        }
+                consumer.accept(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            }catch(RuntimeException e) { // would be swallowed by the future
+                Bukkit.getLogger().log(Level.SEVERE, "A failure consumer threw an exception", e);
+            }
+        });
+    }
 
-        return result;
+    /**
+     * Convert the response when it is received
+     * @param function The converter
+     * @return A new response future with the converted response
+     */
+    public <U> @NotNull ResponseFuture<U> thenApply(@NotNull Function<? super T, ? extends U> function) {
+        return new ResponseFuture<>(this.future.thenApply(function));
     }
 
-    public void async(@NotNull Consumer<ResultSet> consumer) {
-        if(this.result != null) {
-            consumer.accept(this.result);
-            return;
-        }
+    /**
+     * Start another request when the response is received
+     * @param function Creates the next response future from the response
+     * @return A new response future which completes with the response of the next request
+     */
+    public <U> @NotNull ResponseFuture<U> thenCompose(@NotNull Function<? super T, ? extends ResponseFuture<U>> function) {
+        return new ResponseFuture<>(this.future.thenCompose(result -> function.apply(result).toCompletableFuture()));
+    }
 
-        consumers.add(consumer);
+    /**
+     * @return true when the response was received or the task failed
+     */
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+
+    /**
+     * @return A copy of the underlying future, so e.g. a timeout or cancellation doesn't complete the response for others
+     */
+    public @NotNull CompletableFuture<T> toCompletableFuture() {
+        return this.future.copy();
     }
 
 }
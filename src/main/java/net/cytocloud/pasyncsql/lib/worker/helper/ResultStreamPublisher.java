@@ -0,0 +1,249 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import net.cytocloud.pasyncsql.lib.worker.ConnectionBridge;
+import net.cytocloud.pasyncsql.lib.worker.exceptions.DatabaseNotConnectedException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Streams the result of a query in chunks of {@link DetachedResultSet}s. The rows are fetched with a server side cursor
+ * and the next chunk is only read when the subscriber requested it, so the memory usage doesn't depend on the size of the result.
+ * Every subscription executes the query again (and uses one pooled connection until the stream is finished or cancelled).
+ * A subscriber which doesn't request the next chunk within the stall timeout gets cancelled, so the connection is released
+ */
+public class ResultStreamPublisher implements Flow.Publisher<DetachedResultSet> {
+
+    public static final long STALL_TIMEOUT = 30; // seconds a subscriber can wait before requesting the next chunk
+
+    private final @NotNull ConnectionBridge bridge;
+    private final @NotNull String query;
+    private final int fetchSize;
+    private final @NotNull Property[] properties;
+
+    /**
+     * @param bridge The bridge which executes the query
+     * @param query The sql query
+     * @param fetchSize How many rows are fetched from the server at once (also the maximum size of a chunk)
+     * @param properties The properties which declare the column types
+     */
+    public ResultStreamPublisher(@NotNull ConnectionBridge bridge, @NotNull String query, int fetchSize, @NotNull Property... properties) {
+        if(fetchSize <= 0)
+            throw new IllegalArgumentException("The fetch size needs to be positive");
+
+        this.bridge = bridge;
+        this.query = query;
+        this.fetchSize = fetchSize;
+        this.properties = properties;
+    }
+
+    @Override
+    public void subscribe(@NotNull Flow.Subscriber<? super DetachedResultSet> subscriber) {
+        final StreamSubscription subscription = new StreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+
+        try {
+            this.bridge.executeConnectionTask(Task.create(subscription::stream));
+        }catch(DatabaseNotConnectedException e) {
+            subscription.finish(e);
+        }
+    }
+
+    /**
+     * Consume all chunks one after another (the next chunk is fetched after the consumer returned)
+     * @param chunkConsumer The consumer of the chunks (called on the worker)
+     * @return A future which completes with the amount of streamed rows
+     */
+    public @NotNull ResponseFuture<Long> forEachChunk(@NotNull Consumer<DetachedResultSet> chunkConsumer) {
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        final AtomicLong rows = new AtomicLong(0);
+
+        subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(@NotNull Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(@NotNull DetachedResultSet chunk) {
+                try {
+                    chunkConsumer.accept(chunk);
+                }catch(RuntimeException e) {
+                    this.subscription.cancel();
+                    future.completeExceptionally(e);
+                    return;
+                }
+
+                rows.addAndGet(chunk.getRowCount());
+                this.subscription.request(1);
+            }
+
+            @Override
+            public void onError(@NotNull Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(rows.get());
+            }
+        });
+
+        return new ResponseFuture<>(future);
+    }
+
+    private class StreamSubscription implements Flow.Subscription {
+
+        private final @NotNull Flow.Subscriber<? super DetachedResultSet> subscriber;
+        private final @NotNull ReentrantLock lock = new ReentrantLock();
+        private final @NotNull Condition demandChanged = lock.newCondition();
+
+        private long demand = 0;
+        private boolean cancelled = false;
+        private boolean finished = false;
+
+        private StreamSubscription(@NotNull Flow.Subscriber<? super DetachedResultSet> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if(n <= 0) {
+                cancel();
+                finish(new IllegalArgumentException("The requested amount needs to be positive (" + n + ")"));
+                return;
+            }
+
+            this.lock.lock();
+            try {
+                this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n; // overflow => unbounded
+                this.demandChanged.signalAll();
+            }finally {
+                this.lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            this.lock.lock();
+            try {
+                this.cancelled = true;
+                this.demandChanged.signalAll();
+            }finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Runs on the worker. Executes the query and emits chunks as long as the subscriber requests them
+         * @param connection The pooled connection
+         */
+        private void stream(@NotNull Connection connection) throws SQLException {
+            try(PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+
+                try(ResultSet set = statement.executeQuery()) {
+                    while(awaitDemand()) {
+                        final DetachedResultSet chunk = DetachedResultSet.read(set, fetchSize, properties);
+
+                        if(chunk.isEmpty())
+                            break;
+
+                        this.subscriber.onNext(chunk);
+
+                        if(chunk.getRowCount() < fetchSize)
+                            break;
+                    }
+                }
+            }catch(SQLException | RuntimeException e) {
+                finish(e);
+                throw e;
+            }
+
+            finish(null);
+        }
+
+        /**
+         * Block until the subscriber requested another chunk. The subscription gets cancelled when the subscriber stalls
+         * or the worker is shut down
+         * @return false when the subscription got cancelled
+         */
+        private boolean awaitDemand() {
+            @Nullable Throwable failure = null;
+
+            this.lock.lock();
+            try {
+                long nanos = TimeUnit.SECONDS.toNanos(STALL_TIMEOUT);
+
+                while(this.demand == 0 && !this.cancelled) {
+                    if(nanos <= 0) {
+                        this.cancelled = true;
+                        failure = new TimeoutException("The subscriber didn't request a chunk for " + STALL_TIMEOUT + " seconds");
+                        break;
+                    }
+
+                    nanos = this.demandChanged.awaitNanos(nanos);
+                }
+
+                if(failure == null) {
+                    if(this.cancelled)
+                        return false;
+
+                    if(this.demand != Long.MAX_VALUE)
+                        this.demand--;
+
+                    return true;
+                }
+            }catch(InterruptedException e) { // the executor is shut down
+                Thread.currentThread().interrupt();
+                this.cancelled = true;
+                failure = new CancellationException("The stream got interrupted");
+            }finally {
+                this.lock.unlock();
+            }
+
+            finish(failure);
+            return false;
+        }
+
+        private void finish(Throwable throwable) {
+            this.lock.lock();
+            try {
+                if(this.finished)
+                    return;
+
+                this.finished = true;
+
+                if(this.cancelled && throwable == null) // no signals after cancel
+                    return;
+            }finally {
+                this.lock.unlock();
+            }
+
+            if(throwable == null) {
+                this.subscriber.onComplete();
+            }else {
+                this.subscriber.onError(throwable);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Binds values to the parameters of a prepared statement by the type of their property
+ */
+public class StatementBinder {
+
+    /**
+     * Bind all values in their order (starting with the first parameter)
+     * @param statement The prepared statement
+     * @param values The values
+     * @throws SQLException When a value couldn't be bound
+     */
+    public static void bindAll(@NotNull PreparedStatement statement, @NotNull TableRowValue... values) throws SQLException {
+        for(int i = 0; i < values.length; i++)
+            bind(statement, i + 1, values[i].property().getType(), values[i].value());
+    }
+
+    /**
+     * Bind a value to a parameter
+     * @param statement The prepared statement
+     * @param index The index of the parameter (starting with 1)
+     * @param type The type of the property
+     * @param value The value (null => sql NULL)
+     * @throws SQLException When the value couldn't be bound
+     */
+    public static void bind(@NotNull PreparedStatement statement, int index, @NotNull Property.Type type, @Nullable Object value) throws SQLException {
+        if(value == null) {
+            statement.setNull(index, sqlType(type));
+            return;
+        }
+
+        switch(type) {
+            case INT, SMALLINT -> statement.setInt(index, value instanceof Number number ? number.intValue() : Integer.parseInt(value.toString()));
+            case BIGINT -> statement.setLong(index, value instanceof Number number ? number.longValue() : Long.parseLong(value.toString()));
+            case VARCHAR, TEXT -> statement.setString(index, value.toString());
+        }
+    }
+
+    /**
+     * @param type The type of the property
+     * @return The matching {@link Types} constant
+     */
+    public static int sqlType(@NotNull Property.Type type) {
+        return switch(type) {
+            case INT -> Types.INTEGER;
+            case SMALLINT -> Types.SMALLINT;
+            case BIGINT -> Types.BIGINT;
+            case VARCHAR -> Types.VARCHAR;
+            case TEXT -> Types.LONGVARCHAR;
+        };
+    }
+
+}
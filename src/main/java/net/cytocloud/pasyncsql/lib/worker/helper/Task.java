@@ -3,42 +3,73 @@ package net.cytocloud.pasyncsql.lib.worker.helper;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.logging.Level;
 
 @Getter @Setter
 public abstract class Task {
 
-    @Getter(AccessLevel.NONE)
-    private final @NotNull List<Consumer<Task>> executorListeners = new ArrayList<>();
+    @Setter(AccessLevel.NONE)
+    private final @NotNull CompletableFuture<Task> completion = new CompletableFuture<>(); // completes after the execution (also when an exception was thrown)
 
-    private boolean executed = false;
-    private @Nullable SQLException exceptionThrown = null;
+    private volatile boolean executed = false;
+    private volatile @Nullable SQLException exceptionThrown = null;
 
     @Setter(AccessLevel.NONE)
-    private final @NotNull ResponseFuture response = new ResponseFuture(); // only on tasks which results into responses
+    private final @NotNull ResponseFuture<ResultSet> response = new ResponseFuture<>(); // only on tasks which results into responses
 
     public abstract void execute(@NotNull Connection connection) throws SQLException;
 
     public void addExecutorListener(@NotNull Consumer<Task> executorListener) {
-        if(isExecuted()) {
-            executorListener.accept(this);
-            return;
-        }
+        this.completion.thenAccept(task -> {
+            try {
+                executorListener.accept(task);
+            }catch(RuntimeException e) { // would be swallowed by the future
+                Bukkit.getLogger().log(Level.SEVERE, "An executor listener threw an exception", e);
+            }
+        });
+    }
+
+    /**
+     * Wait for the execution of any task (update tasks never complete their response)
+     * @return A future which completes with the task after a successful execution or exceptionally with the thrown exception
+     */
+    public @NotNull CompletableFuture<Task> whenDone() {
+        return this.completion.thenCompose(task -> {
+            final CompletableFuture<ResultSet> response = this.response.toCompletableFuture();
+
+            // fail() completes the response before the execution is recognized
+            if(response.isCompletedExceptionally())
+                return response.thenApply(resultSet -> task);
 
-        this.executorListeners.add(executorListener);
+            return CompletableFuture.completedFuture(task);
+        });
     }
 
     @ApiStatus.Internal
     public void recognizeExecution() {
-        this.executorListeners.forEach(taskConsumer -> taskConsumer.accept(this));
+        this.completion.complete(this);
+    }
+
+    /**
+     * Mark the task as failed. The response completes exceptionally with the thrown exception
+     * @param throwable The exception which was thrown while executing the task
+     */
+    @ApiStatus.Internal
+    public void fail(@NotNull Throwable throwable) {
+        if(throwable instanceof SQLException sqlException)
+            setExceptionThrown(sqlException);
+
+        this.response.fail(throwable);
     }
 
     public static @NotNull Task create(@NotNull SimplifiedTask task) {
@@ -0,0 +1,69 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads without compiling against Java 21. The api is looked up once at runtime
+ */
+public class VirtualThreads {
+
+    private static final @Nullable Class<?> builderClass = findBuilderClass();
+    private static final boolean available = probe(); // the api can exist without being usable (preview feature on java 19/20)
+
+    /**
+     * @return true when the running jvm supports virtual threads (an executor could be created)
+     */
+    public static boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Create an executor which starts a new virtual thread for every task
+     * @param name The name prefix of the virtual threads
+     * @return The executor
+     * @throws UnsupportedOperationException When the running jvm doesn't support virtual threads
+     */
+    public static @NotNull ExecutorService newThreadPerTaskExecutor(@NotNull String name) {
+        if(builderClass == null)
+            throw new UnsupportedOperationException("Virtual threads are not supported by this java version (" + System.getProperty("java.version") + ")");
+
+        try {
+            // Thread.ofVirtual().name(name, 1).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name, 1L);
+
+            final ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        }catch(ReflectiveOperationException | RuntimeException e) { // e.g. the preview api is not enabled
+            throw new UnsupportedOperationException("Couldn't create a virtual thread executor", e);
+        }
+    }
+
+    private static boolean probe() {
+        if(builderClass == null)
+            return false;
+
+        try {
+            newThreadPerTaskExecutor("PowerfulSQL-Probe-").shutdown();
+            return true;
+        }catch(UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static @Nullable Class<?> findBuilderClass() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return Class.forName("java.lang.Thread$Builder");
+        }catch(ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+}
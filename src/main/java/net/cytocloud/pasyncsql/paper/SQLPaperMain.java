@@ -1,8 +1,11 @@
 package net.cytocloud.pasyncsql.paper;
 
+import net.cytocloud.pasyncsql.lib.api.init.PowerfulAsyncSQLAPI;
 import net.cytocloud.pasyncsql.lib.worker.SQLWorker;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.concurrent.TimeUnit;
+
 public class SQLPaperMain extends JavaPlugin {
 
     @Override
@@ -12,7 +15,7 @@ public class SQLPaperMain extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        SQLWorker.stopThread();
+        PowerfulAsyncSQLAPI.shutdown(10, TimeUnit.SECONDS);
     }
 
 }
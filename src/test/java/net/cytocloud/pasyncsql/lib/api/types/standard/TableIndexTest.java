@@ -0,0 +1,57 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableIndexTest {
+
+    @Test
+    void nameContainsThePropertiesOfTheIndex() {
+        final Property name = new Property("Name", Property.Type.VARCHAR, 16);
+        final Property world = new Property("World", Property.Type.VARCHAR, 32);
+
+        assertEquals("idx_Name", TableIndex.of(false, name).name());
+        assertEquals("uq_Name_World", TableIndex.of(true, name, world).name());
+    }
+
+    @Test
+    void tooLongNamesAreCutWithAHash() {
+        final Property first = new Property("A".repeat(40), Property.Type.INT);
+        final Property second = new Property("B".repeat(40), Property.Type.INT);
+        final Property third = new Property("C".repeat(40), Property.Type.INT);
+
+        final String name = TableIndex.of(false, first, second).name();
+        final String other = TableIndex.of(false, first, third).name();
+
+        assertEquals(64, name.length());
+        assertEquals(64, other.length());
+        assertTrue(name.startsWith("idx_" + "A".repeat(40) + "_B"));
+        assertNotEquals(name, other); // same prefix, different hash
+        assertEquals(name, TableIndex.of(false, first, second).name());
+    }
+
+    @Test
+    void textPropertiesCantBeIndexed() {
+        final Property description = new Property("Description", Property.Type.TEXT);
+        assertThrows(IllegalArgumentException.class, () -> TableIndex.of(false, description));
+    }
+
+    @Test
+    void coveredByAnIndexWithTheSameColumns() {
+        final Property name = new Property("Name", Property.Type.VARCHAR, 16);
+        final Property world = new Property("World", Property.Type.VARCHAR, 32);
+        final TableIndex index = TableIndex.of(true, name, world);
+
+        assertTrue(index.isCoveredBy(List.of("name", "world"), true));
+        assertFalse(index.isCoveredBy(List.of("name", "world"), false)); // not unique
+        assertFalse(index.isCoveredBy(List.of("world", "name"), true)); // other order
+    }
+
+}
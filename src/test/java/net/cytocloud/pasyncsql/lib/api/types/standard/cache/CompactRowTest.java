@@ -0,0 +1,123 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactRowTest {
+
+    private final Property uuid = new Property("UUID", Property.Type.VARCHAR, 36).primary();
+    private final Property coins = new Property("Coins", Property.Type.INT);
+    private final Property balance = new Property("Balance", Property.Type.BIGINT);
+    private final Property description = new Property("Description", Property.Type.TEXT);
+
+    private final CompactRow.Layout layout = new CompactRow.Layout(new Property[] { uuid, coins, balance, description });
+
+    @Test
+    void newRowHasNoValues() {
+        final CompactRow row = new CompactRow(layout);
+
+        for(int ordinal = 0; ordinal < layout.size(); ordinal++)
+            assertNull(row.get(ordinal));
+    }
+
+    @Test
+    void primitivesKeepTheTypeOfTheirProperty() {
+        final CompactRow row = new CompactRow(layout);
+
+        row.set(1, 5);
+        row.set(2, 7L);
+
+        assertEquals(Integer.valueOf(5), row.get(1));
+        assertEquals(Long.valueOf(7), row.get(2));
+    }
+
+    @Test
+    void objectsAreStoredAsTheyAre() {
+        final CompactRow row = new CompactRow(layout);
+
+        row.set(0, "id");
+        row.set(3, "text");
+
+        assertEquals("id", row.get(0));
+        assertEquals("text", row.get(3));
+    }
+
+    @Test
+    void nullClearsTheValue() {
+        final CompactRow row = new CompactRow(layout);
+
+        row.set(1, 5);
+        row.set(1, null);
+        row.set(0, "id");
+        row.set(0, null);
+
+        assertNull(row.get(1));
+        assertNull(row.get(0));
+    }
+
+    @Test
+    void primitiveSlotKeepsValuesOfOtherTypes() {
+        final CompactRow row = new CompactRow(layout);
+        final Object custom = new Object();
+
+        row.set(1, custom);
+        assertSame(custom, row.get(1));
+
+        row.set(1, 3);
+        assertEquals(Integer.valueOf(3), row.get(1));
+    }
+
+    @Test
+    void manyPrimitivesUseTheirOwnSlots() {
+        final Property[] properties = new Property[70];
+
+        for(int i = 0; i < properties.length; i++)
+            properties[i] = new Property("Value" + i, Property.Type.BIGINT);
+
+        final CompactRow row = new CompactRow(new CompactRow.Layout(properties));
+
+        for(int i = 0; i < properties.length; i += 2)
+            row.set(i, (long) i);
+
+        for(int i = 0; i < properties.length; i++)
+            assertEquals(i % 2 == 0 ? Long.valueOf(i) : null, row.get(i));
+    }
+
+    @Test
+    void layoutKnowsTheOrdinalOfItsProperties() {
+        assertEquals(0, layout.ordinalOf(uuid));
+        assertEquals(2, layout.ordinalOf(balance));
+        assertSame(description, layout.propertyAt(3));
+        assertEquals(4, layout.size());
+
+        assertTrue(layout.contains(coins));
+        assertFalse(layout.contains(new Property("Coins", Property.Type.INT))); // another property with the same name
+    }
+
+    @Test
+    void sharedPropertyHasAnOrdinalPerLayout() {
+        final CompactRow.Layout other = new CompactRow.Layout(new Property[] { balance, uuid });
+
+        assertEquals(2, layout.ordinalOf(balance));
+        assertEquals(0, other.ordinalOf(balance));
+        assertEquals(1, other.ordinalOf(uuid));
+    }
+
+    @Test
+    void unknownPropertyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> layout.ordinalOf(new Property("Other", Property.Type.INT)));
+    }
+
+    @Test
+    void propertyCanOnlyBeUsedOnce() {
+        assertThrows(IllegalArgumentException.class, () -> new CompactRow.Layout(new Property[] { uuid, coins, coins }));
+    }
+
+}
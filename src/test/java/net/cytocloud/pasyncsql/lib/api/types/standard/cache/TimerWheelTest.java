@@ -0,0 +1,119 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    @Test
+    void expiresWhenItsSecondIsReached() {
+        final TimerWheel<String> wheel = new TimerWheel<>(0);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.schedule("a", 5_000);
+
+        wheel.advance(4_999, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(5_000, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timerInThePastExpiresWithTheNextTick() {
+        final TimerWheel<String> wheel = new TimerWheel<>(10_000);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.schedule("a", 0);
+
+        wheel.advance(10_999, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(11_000, expired::add);
+        assertEquals(List.of("a"), expired);
+    }
+
+    @Test
+    void rescheduleMovesTheTimer() {
+        final TimerWheel<String> wheel = new TimerWheel<>(0);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.schedule("a", 2_000);
+        wheel.schedule("a", 10_000);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(5_000, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(10_000, expired::add);
+        assertEquals(List.of("a"), expired);
+    }
+
+    @Test
+    void cancelledTimerNeverExpires() {
+        final TimerWheel<String> wheel = new TimerWheel<>(0);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.schedule("a", 3_000);
+        wheel.cancel("a");
+        wheel.cancel("unknown");
+
+        wheel.advance(60_000, expired::add);
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timersOfTheUpperWheelsCascadeDown() {
+        final TimerWheel<String> wheel = new TimerWheel<>(0);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.schedule("minutes", 100_000); // second wheel
+        wheel.schedule("hours", 5_000_000); // third wheel
+
+        wheel.advance(99_999, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(100_000, expired::add);
+        assertEquals(List.of("minutes"), expired);
+
+        wheel.advance(4_999_999, expired::add);
+        assertEquals(List.of("minutes"), expired);
+
+        wheel.advance(5_000_000, expired::add);
+        assertEquals(List.of("minutes", "hours"), expired);
+    }
+
+    @Test
+    void timersOfTheSameSecondExpireTogether() {
+        final TimerWheel<Integer> wheel = new TimerWheel<>(0);
+        final List<Integer> expired = new ArrayList<>();
+
+        for(int i = 0; i < 10; i++)
+            wheel.schedule(i, 7_000 + i * 10);
+
+        wheel.advance(7_000, expired::add);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), expired);
+    }
+
+    @Test
+    void clearRemovesAllTimers() {
+        final TimerWheel<String> wheel = new TimerWheel<>(0);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.schedule("a", 1_000);
+        wheel.schedule("b", 1_000_000);
+        wheel.clear();
+
+        wheel.advance(2_000_000, expired::add);
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+}
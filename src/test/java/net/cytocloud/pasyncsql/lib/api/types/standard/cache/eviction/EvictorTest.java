@@ -0,0 +1,143 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvictorTest {
+
+    @Test
+    void fifoEvictsTheOldestKey() {
+        final Evictor<String> evictor = new FifoEvictor<>();
+
+        evictor.recordInsert("a");
+        evictor.recordInsert("b");
+        evictor.recordInsert("c");
+        evictor.recordAccess("a");
+
+        assertEquals("a", evictor.selectVictim());
+
+        evictor.recordRemove("a");
+        assertEquals("b", evictor.selectVictim());
+    }
+
+    @Test
+    void lruEvictsTheLeastRecentlyUsedKey() {
+        final Evictor<String> evictor = new LruEvictor<>();
+
+        evictor.recordInsert("a");
+        evictor.recordInsert("b");
+        evictor.recordInsert("c");
+        evictor.recordAccess("a");
+
+        assertEquals("b", evictor.selectVictim());
+
+        evictor.recordRemove("b");
+        assertEquals("c", evictor.selectVictim());
+    }
+
+    @Test
+    void lfuEvictsTheLeastFrequentlyUsedKey() {
+        final Evictor<String> evictor = new LfuEvictor<>();
+
+        evictor.recordInsert("a");
+        evictor.recordInsert("b");
+        evictor.recordInsert("c");
+        evictor.recordAccess("a");
+        evictor.recordAccess("a");
+        evictor.recordAccess("c");
+
+        assertEquals("b", evictor.selectVictim());
+
+        evictor.recordRemove("b");
+        assertEquals("c", evictor.selectVictim());
+
+        evictor.recordRemove("c");
+        assertEquals("a", evictor.selectVictim());
+    }
+
+    @Test
+    void lfuEvictsKeysWithTheSameFrequencyInInsertionOrder() {
+        final Evictor<String> evictor = new LfuEvictor<>();
+
+        evictor.recordInsert("a");
+        evictor.recordInsert("b");
+        evictor.recordAccess("a");
+        evictor.recordAccess("b");
+
+        assertEquals("a", evictor.selectVictim());
+    }
+
+    @Test
+    void windowTinyLfuKeepsFrequentKeysUnderAScan() {
+        final int maxEntries = 100;
+        final Evictor<Integer> evictor = new WindowTinyLfuEvictor<>(maxEntries);
+        final Set<Integer> cached = new HashSet<>();
+
+        // Frequently used keys fill the cache
+        for(int key = 0; key < maxEntries; key++) {
+            evictor.recordInsert(key);
+            cached.add(key);
+        }
+
+        for(int round = 0; round < 5; round++) {
+            for(int key = 0; key < maxEntries; key++)
+                evictor.recordAccess(key);
+        }
+
+        // A scan of keys which are used only once
+        for(int key = 1000; key < 1200; key++) {
+            evictor.recordInsert(key);
+            cached.add(key);
+
+            while(cached.size() > maxEntries) {
+                final Integer victim = evictor.selectVictim();
+
+                assertNotNull(victim);
+                evictor.recordRemove(victim);
+                cached.remove(victim);
+            }
+        }
+
+        int frequentKeys = 0;
+
+        for(int key = 0; key < maxEntries; key++) {
+            if(cached.contains(key))
+                frequentKeys++;
+        }
+
+        assertTrue(frequentKeys >= maxEntries - 2, "only " + frequentKeys + " frequent keys survived the scan");
+    }
+
+    @Test
+    void everyPolicyForgetsRemovedAndClearedKeys() {
+        for(EvictionPolicy policy : EvictionPolicy.values()) {
+            final Evictor<String> evictor = policy.create(10);
+
+            assertNull(evictor.selectVictim(), policy.name());
+
+            evictor.recordInsert("a");
+            evictor.recordRemove("a");
+            evictor.recordRemove("unknown");
+            evictor.recordAccess("unknown");
+            assertNull(evictor.selectVictim(), policy.name());
+
+            evictor.recordInsert("a");
+            evictor.recordInsert("b");
+            evictor.clear();
+            assertNull(evictor.selectVictim(), policy.name());
+        }
+    }
+
+    @Test
+    void infiniteCacheUsesLruForWindowTinyLfu() {
+        assertTrue(EvictionPolicy.W_TINY_LFU.create(-1) instanceof LruEvictor);
+    }
+
+}
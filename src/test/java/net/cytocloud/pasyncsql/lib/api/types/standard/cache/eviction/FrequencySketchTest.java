@@ -0,0 +1,63 @@
+package net.cytocloud.pasyncsql.lib.api.types.standard.cache.eviction;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrequencySketchTest {
+
+    @Test
+    void unknownKeyHasNoFrequency() {
+        final FrequencySketch sketch = new FrequencySketch(100);
+        assertEquals(0, sketch.frequency("key"));
+    }
+
+    @Test
+    void countsTheUsesOfAKey() {
+        final FrequencySketch sketch = new FrequencySketch(100);
+
+        for(int i = 0; i < 5; i++)
+            sketch.increment("key");
+
+        assertEquals(5, sketch.frequency("key"));
+    }
+
+    @Test
+    void frequencyIsLimitedToFourBits() {
+        final FrequencySketch sketch = new FrequencySketch(100);
+
+        for(int i = 0; i < 100; i++)
+            sketch.increment("key");
+
+        assertEquals(15, sketch.frequency("key"));
+    }
+
+    @Test
+    void neverUnderestimates() {
+        final FrequencySketch sketch = new FrequencySketch(1000);
+
+        for(int key = 0; key < 500; key++) {
+            for(int i = 0; i < key % 10; i++)
+                sketch.increment(key);
+        }
+
+        for(int key = 0; key < 500; key++)
+            assertTrue(sketch.frequency(key) >= key % 10, "key " + key);
+    }
+
+    @Test
+    void oldFrequenciesFadeOut() {
+        final FrequencySketch sketch = new FrequencySketch(1000); // width 1024 -> halved after 10240 samples
+
+        for(int i = 0; i < 15; i++)
+            sketch.increment("old");
+
+        // Enough other keys to reach the sample period
+        for(int i = 0; i < 10_300; i++)
+            sketch.increment(i);
+
+        assertTrue(sketch.frequency("old") < 15);
+    }
+
+}
@@ -0,0 +1,124 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import net.cytocloud.pasyncsql.lib.api.types.resolved.entry.TableRowValue;
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchExecutorTest {
+
+    private final Property uuid = new Property("UUID", Property.Type.VARCHAR, 36).primary();
+    private final Property coins = new Property("Coins", Property.Type.INT);
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void allRowsAreSentInBatchesAndCommitted() throws SQLException {
+        BatchExecutor.execute(connection(), preparedStatement(), List.of(row("a", 1), row("b", 2), row("c", 3)), 2);
+
+        assertEquals(List.of(
+                "setAutoCommit false",
+                "addBatch", "addBatch", "executeBatch",
+                "addBatch", "executeBatch",
+                "commit",
+                "setAutoCommit true"
+        ), calls);
+    }
+
+    @Test
+    void rowWhichCantBeBoundRollsBackTheBatch() {
+        final List<TableRowValue[]> rows = List.of(row("a", 1), row("b", 2), row("c", "not a number"), row("d", 4));
+
+        assertThrows(NumberFormatException.class, () -> BatchExecutor.execute(connection(), preparedStatement(), rows, 2));
+
+        assertEquals(List.of(
+                "setAutoCommit false",
+                "addBatch", "addBatch", "executeBatch",
+                "clearBatch",
+                "rollback",
+                "setAutoCommit true"
+        ), calls);
+    }
+
+    @Test
+    void failedQueryRollsBackTheBatch() {
+        assertThrows(SQLException.class, () -> BatchExecutor.execute(connection(), statement(), List.of("UPDATE a", "FAIL", "UPDATE b"), 10));
+
+        assertEquals(List.of(
+                "setAutoCommit false",
+                "addBatch UPDATE a",
+                "clearBatch",
+                "rollback",
+                "setAutoCommit true"
+        ), calls);
+    }
+
+    private TableRowValue[] row(String id, Object value) {
+        return new TableRowValue[] { new TableRowValue(uuid, id), new TableRowValue(coins, value) };
+    }
+
+    /**
+     * A connection with auto commit which records the transaction calls
+     */
+    private Connection connection() {
+        final boolean[] autoCommit = { true };
+
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, arguments) -> switch(method.getName()) {
+            case "getAutoCommit" -> autoCommit[0];
+            case "setAutoCommit" -> {
+                autoCommit[0] = (boolean) arguments[0];
+                this.calls.add("setAutoCommit " + autoCommit[0]);
+                yield null;
+            }
+            case "commit", "rollback" -> {
+                this.calls.add(method.getName());
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private PreparedStatement preparedStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, arguments) -> switch(method.getName()) {
+            case "setString", "setInt", "setLong", "setNull" -> null;
+            case "addBatch", "clearBatch" -> {
+                this.calls.add(method.getName());
+                yield null;
+            }
+            case "executeBatch" -> {
+                this.calls.add(method.getName());
+                yield new int[0];
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Statement statement() {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class }, (proxy, method, arguments) -> switch(method.getName()) {
+            case "addBatch" -> {
+                if(arguments[0].equals("FAIL"))
+                    throw new SQLException("syntax error");
+
+                this.calls.add("addBatch " + arguments[0]);
+                yield null;
+            }
+            case "clearBatch" -> {
+                this.calls.add(method.getName());
+                yield null;
+            }
+            case "executeBatch" -> new int[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+}
@@ -0,0 +1,136 @@
+package net.cytocloud.pasyncsql.lib.worker.helper;
+
+import net.cytocloud.pasyncsql.lib.api.types.standard.Property;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DetachedResultSetTest {
+
+    private static final String[] NAMES = { "UUID", "Coins", "Balance", "Created" };
+    private static final int[] TYPES = { Types.VARCHAR, Types.INTEGER, Types.BIGINT, Types.TIMESTAMP };
+
+    @Test
+    void readsAllRows() throws SQLException {
+        final DetachedResultSet result = DetachedResultSet.read(resultSet(rows(40)));
+
+        assertEquals(40, result.getRowCount());
+        assertEquals(4, result.getColumnCount());
+        assertFalse(result.isEmpty());
+        assertArrayEquals(NAMES, result.getColumnNames());
+
+        for(int row = 0; row < 40; row++) {
+            assertEquals("id" + row, result.getString(row, 0));
+            assertEquals(row, result.getInt(row, "coins"));
+            assertEquals(row * 1_000_000_000L, result.getLong(row, "Balance"));
+        }
+    }
+
+    @Test
+    void columnTypesComeFromThePropertiesOrTheSqlType() throws SQLException {
+        final Property coins = new Property("Coins", Property.Type.BIGINT); // overrides the sql type
+        final DetachedResultSet result = DetachedResultSet.read(resultSet(rows(1)), coins);
+
+        assertArrayEquals(new Property.Type[] { Property.Type.VARCHAR, Property.Type.BIGINT, Property.Type.BIGINT, null }, result.getColumnTypes());
+        assertEquals(0L, result.getObject(0, "Coins"));
+        assertEquals("created0", result.getObject(0, "Created")); // stored as object
+    }
+
+    @Test
+    void nullValuesAreRemembered() throws SQLException {
+        final Object[][] rows = { { null, null, null, null } };
+        final DetachedResultSet result = DetachedResultSet.read(resultSet(rows));
+
+        for(int column = 0; column < NAMES.length; column++) {
+            assertTrue(result.isNull(0, column));
+            assertNull(result.getObject(0, column));
+        }
+
+        assertEquals(0, result.getInt(0, "Coins"));
+        assertNull(result.getString(0, "UUID"));
+    }
+
+    @Test
+    void readsChunksUntilTheResultSetIsEmpty() throws SQLException {
+        final ResultSet resultSet = resultSet(rows(25));
+
+        assertEquals(10, DetachedResultSet.read(resultSet, 10).getRowCount());
+        assertEquals(10, DetachedResultSet.read(resultSet, 10).getRowCount());
+
+        final DetachedResultSet last = DetachedResultSet.read(resultSet, 10);
+        assertEquals(5, last.getRowCount());
+        assertEquals("id20", last.getString(0, "uuid"));
+
+        assertTrue(DetachedResultSet.read(resultSet, 10).isEmpty());
+    }
+
+    @Test
+    void invalidAccessIsRejected() throws SQLException {
+        final DetachedResultSet result = DetachedResultSet.read(resultSet(rows(2)));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> result.getInt(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> result.getString(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> result.findColumn("Unknown"));
+    }
+
+    private static Object[][] rows(int count) {
+        final Object[][] rows = new Object[count][];
+
+        for(int row = 0; row < count; row++)
+            rows[row] = new Object[] { "id" + row, row, row * 1_000_000_000L, "created" + row };
+
+        return rows;
+    }
+
+    /**
+     * A forward only result set over the rows (only the methods which are used by {@link DetachedResultSet})
+     */
+    private static ResultSet resultSet(Object[][] rows) {
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(DetachedResultSetTest.class.getClassLoader(), new Class<?>[] { ResultSetMetaData.class }, (proxy, method, arguments) -> switch(method.getName()) {
+            case "getColumnCount" -> NAMES.length;
+            case "getColumnLabel", "getColumnName" -> NAMES[(int) arguments[0] - 1];
+            case "getColumnType" -> TYPES[(int) arguments[0] - 1];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+
+        final int[] cursor = { -1 };
+        final boolean[] wasNull = { false };
+
+        return (ResultSet) Proxy.newProxyInstance(DetachedResultSetTest.class.getClassLoader(), new Class<?>[] { ResultSet.class }, (proxy, method, arguments) -> {
+            if(method.getName().equals("getMetaData"))
+                return metaData;
+
+            if(method.getName().equals("next"))
+                return ++cursor[0] < rows.length;
+
+            if(method.getName().equals("wasNull"))
+                return wasNull[0];
+
+            if(arguments == null || arguments.length != 1 || !(arguments[0] instanceof Integer column))
+                throw new UnsupportedOperationException(method.getName());
+
+            final Object value = rows[cursor[0]][column - 1];
+            wasNull[0] = value == null;
+
+            return switch(method.getName()) {
+                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                case "getString" -> value == null ? null : value.toString();
+                case "getObject" -> value;
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+
+}